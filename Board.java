@@ -0,0 +1,858 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.*;
+
+/**
+ * Class Board
+ * Holds the state of a game of Minesweeper independently of any graphics
+ * Publishes batched change events to registered BoardListeners
+ */
+public class Board
+{
+    // Bits stored in the state array
+    public static final byte OPENED = 1;
+    public static final byte FLAGGED = 2;
+
+    // Value stored for a mine, 0 to 8 represents actual numerical value
+    public static final byte MINE = -1;
+
+    // Boards with at least this many Cells count surroundings with bitboards by default
+    public static final int BITBOARD_MIN_CELLS = 4096;
+
+    // SPREAD[b] has bit i of b in the lowest bit of byte i, for turning 8 bits of a bit plane into 8 Cell values
+    private static final long[] SPREAD = new long[256];
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            for (int i = 0; i < 8; i++) {
+                SPREAD[b] |= (long) (b >>> i & 1) << (8 * i);
+            }
+        }
+    }
+
+    // Board specification
+    private final int width;
+    private final int height;
+    private final int mineNum;
+
+    // Cell values and states, indexed by y * width + x
+    private final byte[] values;
+    private final byte[] state;
+
+    // Variables to keep track of how the game progresses
+    private int flags;
+    private int wronglyFlagged = 0;
+    private int unopenedSafe;
+    private boolean gameWon = false;
+    private boolean gameLost = false;
+    private boolean firstClick = true;
+    // Whether anything has been done on this board since it was generated, so pooled boards are not counted as games
+    private boolean started = false;
+    // Mines moved away from a first click since the board was generated; the board then differs from its rating
+    private int relocations = 0;
+    private int seconds = 0;
+    private final SplittableRandom random;
+
+    // Mines as one bit per Cell, each row padded to whole 64-bit words; only allocated for bitboard generation
+    private boolean bitboardGeneration;
+    private long[] mineBits;
+
+    // Reusable buffers for cascading and for batching opened Cells into one event
+    private int[] queue = new int[64];
+    private int[] opened = new int[64];
+    private int openedCount = 0;
+
+    // Practice mode undo history: every change made by every action, one int per change, in the order made
+    // An entry is a packed Cell index, marked with FLAG_ENTRY if the Cell's flag was toggled or LOST_ENTRY
+    // if it was the mine which lost the game, and otherwise meaning the Cell was opened
+    private static final int FLAG_ENTRY = 1 << 30;
+    private static final int LOST_ENTRY = 1 << 29;
+    private static final int CELL_MASK = LOST_ENTRY - 1;
+    private boolean practiceMode = false;
+    private boolean replaying = false;
+    private int[] history = new int[64];
+    private int historySize = 0;
+    // End of each action's entries in history, and whether it was made on the first click
+    private int[] actionEnds = new int[16];
+    private boolean[] actionWasFirstClick = new boolean[16];
+    private int actionCount = 0;
+    // Actions currently applied; those after it up to actionCount can be redone
+    private int actionsApplied = 0;
+
+    private final ArrayList<BoardListener> listeners = new ArrayList<>();
+
+    /**
+     * Constructor, creates an empty board; call generate() before playing
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines to place
+     */
+    public Board(int width, int height, int mineNum) {
+        this(width, height, mineNum, new SplittableRandom());
+    }
+
+    /**
+     * Constructor, creates an empty board whose sequence of generated layouts is fixed by a seed
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines to place
+     * @param seed seed for mine placement; equal seeds and dimensions give equal boards
+     */
+    public Board(int width, int height, int mineNum, long seed) {
+        this(width, height, mineNum, new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructor, creates an empty board; call generate() before playing
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines to place
+     * @param random source of mine positions
+     */
+    private Board(int width, int height, int mineNum, SplittableRandom random) {
+        checkSpecification(width, height, mineNum);
+        this.width = width;
+        this.height = height;
+        this.mineNum = mineNum;
+        flags = mineNum;
+        this.random = random;
+        values = new byte[width * height];
+        state = new byte[width * height];
+        bitboardGeneration = values.length >= BITBOARD_MIN_CELLS;
+    }
+
+    /**
+     * Creates a generated board with mines exactly where given, for tests and analysis of known layouts
+     * @param rows one String per row, '*' for a mine and any other character for a safe Cell
+     * @return Board ready for its first click, whose later generate() calls place mines randomly
+     */
+    static Board fromRows(String... rows) {
+        int mines = 0;
+        for (String row : rows) {
+            mines += (int) row.chars().filter(ch -> ch == '*').count();
+        }
+        Board b = new Board(rows[0].length(), rows.length, mines, new SplittableRandom());
+        for (int y = 0; y < b.height; y++) {
+            for (int x = 0; x < b.width; x++) {
+                if (rows[y].charAt(x) == '*') {
+                    b.values[y * b.width + x] = MINE;
+                    b.incrementSurroundings(x, y);
+                }
+            }
+        }
+        b.unopenedSafe = b.values.length - mines;
+        return b;
+    }
+
+    /**
+     * Throws an exception if a board cannot be made with the given dimensions and mine count, including one with
+     * more Cells than an array can index
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines
+     */
+    static void checkSpecification(int width, int height, int mineNum) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE || mineNum < 0
+                || mineNum >= (long) width * height) {
+            throw new IllegalArgumentException("Invalid board: " + width + "x" + height + " with " + mineNum + " mines");
+        }
+    }
+
+    /**
+     * Registers a listener to receive change events
+     * @param l listener to add
+     */
+    public void addBoardListener(BoardListener l) {
+        listeners.add(l);
+    }
+
+    /**
+     * Unregisters a listener
+     * @param l listener to remove
+     */
+    public void removeBoardListener(BoardListener l) {
+        listeners.remove(l);
+    }
+
+    /**
+     * Resets the game and randomly places a new set of mines
+     */
+    public void generate() {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        flags = mineNum;
+        wronglyFlagged = 0;
+        gameWon = false;
+        gameLost = false;
+        firstClick = true;
+        started = false;
+        relocations = 0;
+        seconds = 0;
+        historySize = 0;
+        actionCount = 0;
+        actionsApplied = 0;
+        placeMines();
+        if (Metrics.ENABLED) {
+            Metrics.recordGenerate(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Chooses how surroundings are counted when the board is generated
+     * Both ways give identical boards for the same seed
+     * @param bitboard true to count with word-parallel bitboards, false to increment around each mine
+     */
+    public void setBitboardGeneration(boolean bitboard) {
+        bitboardGeneration = bitboard;
+    }
+
+    /**
+     * Clears all Cells, randomly selects positions for mines and increments surroundings
+     */
+    private void placeMines() {
+        Arrays.fill(state, (byte) 0);
+        unopenedSafe = values.length - mineNum;
+        if (bitboardGeneration) {
+            placeMinesBitboard();
+            return;
+        }
+        Arrays.fill(values, (byte) 0);
+
+        for (int i = 0; i < mineNum; i++) {
+            int m = random.nextInt(values.length);
+            if (values[m] != MINE) {
+                values[m] = MINE;
+                incrementSurroundings(m % width, m / width);
+            } else {
+                // If selected position is already a mine, selects another random position
+                i--;
+            }
+        }
+    }
+
+    /**
+     * Randomly selects positions for mines in the same order as placeMines(), but sets bits in mineBits
+     * Then counts the surroundings of 64 Cells at a time: for each word, the eight neighbouring mine masks
+     * (the rows above, level and below, shifted one Cell left and right) are summed with a bit-sliced adder
+     * into four bit planes holding each Cell's count in binary
+     */
+    private void placeMinesBitboard() {
+        int words = (width + 63) >>> 6;
+        if (mineBits == null) {
+            mineBits = new long[words * height];
+        } else {
+            Arrays.fill(mineBits, 0);
+        }
+
+        for (int i = 0; i < mineNum; i++) {
+            int m = random.nextInt(values.length);
+            int w = (m / width) * words + ((m % width) >>> 6);
+            long bit = 1L << ((m % width) & 63);
+            if ((mineBits[w] & bit) == 0) {
+                mineBits[w] |= bit;
+            } else {
+                // If selected position is already a mine, selects another random position
+                i--;
+            }
+        }
+
+        for (int y = 0; y < height; y++) {
+            int row = y * words;
+            for (int w = 0; w < words; w++) {
+                // Bit planes of the count for each of the 64 Cells in this word
+                long s0 = 0;
+                long s1 = 0;
+                long s2 = 0;
+                long s3 = 0;
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (y + dy < 0 || y + dy >= height) {
+                        continue;
+                    }
+                    int r = row + dy * words + w;
+                    long centre = mineBits[r];
+                    // Mines one Cell to the left and right, carrying bits across word boundaries
+                    long left = (centre << 1) | (w > 0 ? mineBits[r - 1] >>> 63 : 0);
+                    long right = (centre >>> 1) | (w < words - 1 ? mineBits[r + 1] << 63 : 0);
+                    // The Cell itself is not one of its own surroundings
+                    for (int k = dy == 0 ? 1 : 0; k < 3; k++) {
+                        long m = k == 0 ? centre : (k == 1 ? left : right);
+                        // Adds one to the count of every Cell whose bit is set in m
+                        long c0 = s0 & m;
+                        s0 ^= m;
+                        long c1 = s1 & c0;
+                        s1 ^= c0;
+                        long c2 = s2 & c1;
+                        s2 ^= c1;
+                        s3 |= c2;
+                    }
+                }
+
+                long mine = mineBits[row + w];
+                int base = y * width + (w << 6);
+                int n = Math.min(64, width - (w << 6));
+                // Writes 8 Cells at a time, each byte taking one bit from every plane, or -1 for mines
+                int b = 0;
+                for (; b + 8 <= n; b += 8) {
+                    long v = SPREAD[(int) (s0 >>> b) & 0xFF]
+                            | SPREAD[(int) (s1 >>> b) & 0xFF] << 1
+                            | SPREAD[(int) (s2 >>> b) & 0xFF] << 2
+                            | SPREAD[(int) (s3 >>> b) & 0xFF] << 3;
+                    v |= SPREAD[(int) (mine >>> b) & 0xFF] * 0xFF;
+                    LONGS.set(values, base + b, v);
+                }
+                for (; b < n; b++) {
+                    if ((mine >>> b & 1) != 0) {
+                        values[base + b] = MINE;
+                    } else {
+                        values[base + b] = (byte) ((s0 >>> b & 1) | (s1 >>> b & 1) << 1 | (s2 >>> b & 1) << 2 | (s3 >>> b & 1) << 3);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves a mine to a random Cell which is not a mine, updating only the surroundings of the two Cells
+     * @param i packed index of mine to move
+     */
+    private void relocateMine(int i) {
+        int mX = i % width;
+        int mY = i / width;
+        int count = 0;
+        for (int y = Math.max(mY - 1, 0); y <= Math.min(mY + 1, height - 1); y++) {
+            for (int x = Math.max(mX - 1, 0); x <= Math.min(mX + 1, width - 1); x++) {
+                int n = y * width + x;
+                if (values[n] == MINE) {
+                    count++;
+                } else {
+                    values[n]--;
+                }
+            }
+        }
+        // The mine itself was counted above
+        values[i] = (byte) (count - 1);
+
+        int m;
+        do {
+            m = random.nextInt(values.length);
+        } while (values[m] == MINE || m == i);
+        values[m] = MINE;
+        incrementSurroundings(m % width, m / width);
+        relocations++;
+    }
+
+    /**
+     * Increments all surrounding cell values of mine by 1
+     * @param mX x position on board of mine
+     * @param mY y position on board of mine
+     */
+    private void incrementSurroundings(int mX, int mY) {
+        for (int y = Math.max(mY - 1, 0); y <= Math.min(mY + 1, height - 1); y++) {
+            for (int x = Math.max(mX - 1, 0); x <= Math.min(mX + 1, width - 1); x++) {
+                int i = y * width + x;
+                if (values[i] != MINE) {
+                    values[i]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a Cell, cascading if it is empty
+     * Moves the mine elsewhere if the first click is a mine, otherwise ends the game if a mine is opened
+     * Does nothing if the game is already lost or won
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     */
+    public void reveal(int x, int y) {
+        if (gameLost || gameWon) {
+            return;
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        countStart();
+        boolean wasFirstClick = beginAction();
+        int i = y * width + x;
+        if (values[i] != MINE) {
+            firstClick = false;
+            if ((state[i] & OPENED) == 0) {
+                open(i);
+                // Cascade if empty
+                if (values[i] == 0) {
+                    cascade(i);
+                }
+            }
+        } else if (firstClick) {
+            // If this is the first click, moves the mine elsewhere instead of regenerating the board
+            firstClick = false;
+            relocateMine(i);
+            if (Metrics.ENABLED) {
+                Metrics.firstClickRelocations.increment();
+            }
+            open(i);
+            if (values[i] == 0) {
+                cascade(i);
+            }
+        } else {
+            // Mine has been hit
+            gameLost = true;
+            openedCount = 0;
+            record(i | LOST_ENTRY);
+            endAction(wasFirstClick);
+            if (Metrics.ENABLED) {
+                Metrics.recordReveal(System.nanoTime() - start, 0);
+                Metrics.gamesLost.increment();
+            }
+            for (BoardListener l : listeners) {
+                l.gameLost(this, i);
+            }
+            return;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordReveal(System.nanoTime() - start, openedCount);
+        }
+        endAction(wasFirstClick);
+        publishOpened();
+        if (unopenedSafe == 0) {
+            gameWon = true;
+            if (Metrics.ENABLED) {
+                Metrics.gamesWon.increment();
+            }
+            for (BoardListener l : listeners) {
+                l.gameWon(this);
+            }
+        }
+    }
+
+    /**
+     * Flags or unflags Cell depending on current state
+     * Does nothing if the game is already lost or won, or the Cell is opened
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     */
+    public void flag(int x, int y) {
+        if (gameLost || gameWon) {
+            return;
+        }
+        countStart();
+        boolean wasFirstClick = beginAction();
+        firstClick = false;
+        int i = y * width + x;
+        if ((state[i] & OPENED) == 0) {
+            toggleFlag(i);
+        }
+        endAction(wasFirstClick);
+    }
+
+    /**
+     * Counts a started game the first time a Cell is revealed or flagged after generating
+     */
+    private void countStart() {
+        if (!started) {
+            started = true;
+            if (Metrics.ENABLED) {
+                Metrics.gamesStarted.increment();
+            }
+        }
+    }
+
+    /**
+     * Flips the flag on an unopened Cell, keeps counts up to date and publishes the change
+     * @param i packed index of Cell
+     */
+    private void toggleFlag(int i) {
+        boolean flagged = (state[i] & FLAGGED) == 0;
+        state[i] ^= FLAGGED;
+        record(i | FLAG_ENTRY);
+        int delta = flagged ? 1 : -1;
+        if (Metrics.ENABLED) {
+            Metrics.flagToggles.increment();
+        }
+        flags -= delta;
+        if (values[i] != MINE) {
+            wronglyFlagged += delta;
+        }
+        for (BoardListener l : listeners) {
+            l.flagChanged(this, i, flagged);
+        }
+    }
+
+    /**
+     * Marks a Cell opened, unflagging it first, and queues it for the next cellsOpened event
+     * @param i packed index of Cell
+     */
+    private void open(int i) {
+        if ((state[i] & FLAGGED) != 0) {
+            toggleFlag(i);
+        }
+        state[i] |= OPENED;
+        unopenedSafe--;
+        record(i);
+        if (openedCount == opened.length) {
+            opened = Arrays.copyOf(opened, opened.length * 2);
+        }
+        opened[openedCount++] = i;
+    }
+
+    /**
+     * Opens all surrounding cells to the one passed in, continues using a breadth first search until cells that are not empty are opened
+     * @param start packed index of empty Cell to cascade around
+     */
+    private void cascade(int start) {
+        int openedBefore = openedCount;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+
+        // Repeats until there are no more Cells to check
+        while (head != tail) {
+            int c = queue[head++];
+            int cX = c % width;
+            int cY = c / width;
+            for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+                for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                    int i = y * width + x;
+                    if ((state[i] & OPENED) == 0) {
+                        open(i);
+                        if (values[i] == 0) {
+                            // Every Cell is queued at most once, so the queue never needs to wrap
+                            if (tail == queue.length) {
+                                queue = Arrays.copyOf(queue, queue.length * 2);
+                            }
+                            queue[tail++] = i;
+                        }
+                    }
+                }
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordCascade(openedCount - openedBefore);
+        }
+    }
+
+    /**
+     * Turns practice mode on or off, clearing the undo history
+     * In practice mode every action can be undone and redone, including opening a mine
+     * @param practice true to allow undo and redo
+     */
+    public void setPracticeMode(boolean practice) {
+        if (practice && values.length > CELL_MASK) {
+            throw new IllegalStateException("Board is too large for practice mode: " + values.length + " Cells");
+        }
+        practiceMode = practice;
+        historySize = 0;
+        actionCount = 0;
+        actionsApplied = 0;
+    }
+
+    /**
+     * Returns the number of mines moved away from a first click since the board was generated; undoing the
+     * first click does not move them back
+     * @return number of relocated mines
+     */
+    public int getRelocations() {
+        return relocations;
+    }
+
+    /**
+     * Returns boolean signifying if practice mode is on
+     * @return true if actions can be undone
+     */
+    public boolean isPracticeMode() {
+        return practiceMode;
+    }
+
+    /**
+     * Starts recording an action in practice mode; actions which could have been redone are only discarded once
+     * the action changes something, so a click that does nothing keeps them
+     * @return whether this is the first click, to be passed to endAction
+     */
+    private boolean beginAction() {
+        return firstClick;
+    }
+
+    /**
+     * Discards the actions which could have been redone, so the current action's changes are recorded after
+     * the last applied action
+     */
+    private void discardRedo() {
+        actionCount = actionsApplied;
+        historySize = actionsApplied == 0 ? 0 : actionEnds[actionsApplied - 1];
+    }
+
+    /**
+     * Adds a change made by the current action to the history, in practice mode
+     * @param entry packed Cell index with any entry marker
+     */
+    private void record(int entry) {
+        if (practiceMode && !replaying) {
+            if (actionCount > actionsApplied) {
+                // First change of this action
+                discardRedo();
+            }
+            if (historySize == history.length) {
+                history = Arrays.copyOf(history, historySize * 2);
+            }
+            history[historySize++] = entry;
+        }
+    }
+
+    /**
+     * Finishes recording an action in practice mode; actions which changed nothing are not kept
+     * @param wasFirstClick whether the action was the first click
+     */
+    private void endAction(boolean wasFirstClick) {
+        if (!practiceMode) {
+            return;
+        }
+        if (actionCount > actionsApplied) {
+            // Nothing was recorded; ending the first click is still a change
+            if (wasFirstClick == firstClick) {
+                return;
+            }
+            discardRedo();
+        }
+        int start = actionsApplied == 0 ? 0 : actionEnds[actionsApplied - 1];
+        if (historySize == start && wasFirstClick == firstClick) {
+            return;
+        }
+        if (actionCount == actionEnds.length) {
+            actionEnds = Arrays.copyOf(actionEnds, actionCount * 2);
+            actionWasFirstClick = Arrays.copyOf(actionWasFirstClick, actionCount * 2);
+        }
+        actionEnds[actionCount] = historySize;
+        actionWasFirstClick[actionCount] = wasFirstClick;
+        actionCount++;
+        actionsApplied++;
+    }
+
+    /**
+     * Returns boolean signifying if there is an action to undo
+     * @return true if undo() would change the board
+     */
+    public boolean canUndo() {
+        return actionsApplied > 0;
+    }
+
+    /**
+     * Returns boolean signifying if there is an undone action to redo
+     * @return true if redo() would change the board
+     */
+    public boolean canRedo() {
+        return actionsApplied < actionCount;
+    }
+
+    /**
+     * Undoes the last action in practice mode by reversing its recorded changes, resuming the game if it ended
+     * Takes time proportional to the number of Cells the action changed
+     * @return true if an action was undone
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        boolean wasOver = gameLost || gameWon;
+        int start = actionsApplied == 1 ? 0 : actionEnds[actionsApplied - 2];
+        replaying = true;
+        for (int k = actionEnds[actionsApplied - 1] - 1; k >= start; k--) {
+            int i = history[k] & CELL_MASK;
+            if ((history[k] & FLAG_ENTRY) != 0) {
+                toggleFlag(i);
+            } else if ((history[k] & LOST_ENTRY) != 0) {
+                gameLost = false;
+            } else {
+                state[i] &= ~OPENED;
+                unopenedSafe++;
+                if (openedCount == opened.length) {
+                    opened = Arrays.copyOf(opened, opened.length * 2);
+                }
+                opened[openedCount++] = i;
+            }
+        }
+        replaying = false;
+        gameWon = false;
+        firstClick = actionWasFirstClick[actionsApplied - 1];
+        actionsApplied--;
+
+        if (openedCount > 0) {
+            for (BoardListener l : listeners) {
+                l.cellsClosed(this, opened, openedCount);
+            }
+            openedCount = 0;
+        }
+        if (wasOver) {
+            for (BoardListener l : listeners) {
+                l.gameResumed(this);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Redoes the last undone action in practice mode by reapplying its recorded changes
+     * @return true if an action was redone
+     */
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        int lost = -1;
+        int start = actionsApplied == 0 ? 0 : actionEnds[actionsApplied - 1];
+        replaying = true;
+        for (int k = start; k < actionEnds[actionsApplied]; k++) {
+            int i = history[k] & CELL_MASK;
+            if ((history[k] & FLAG_ENTRY) != 0) {
+                toggleFlag(i);
+            } else if ((history[k] & LOST_ENTRY) != 0) {
+                lost = i;
+            } else {
+                open(i);
+            }
+        }
+        replaying = false;
+        firstClick = false;
+        actionsApplied++;
+
+        publishOpened();
+        if (lost >= 0) {
+            gameLost = true;
+            for (BoardListener l : listeners) {
+                l.gameLost(this, lost);
+            }
+        } else if (unopenedSafe == 0) {
+            gameWon = true;
+            for (BoardListener l : listeners) {
+                l.gameWon(this);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sends all Cells opened by the current action to listeners as one event
+     */
+    private void publishOpened() {
+        if (openedCount > 0) {
+            for (BoardListener l : listeners) {
+                l.cellsOpened(this, opened, openedCount);
+            }
+            openedCount = 0;
+        }
+    }
+
+    /**
+     * Advances the game clock by one second and publishes it
+     * Does nothing if the game is already lost or won
+     */
+    public void tick() {
+        if (gameLost || gameWon) {
+            return;
+        }
+        seconds++;
+        for (BoardListener l : listeners) {
+            l.tick(this, seconds);
+        }
+    }
+
+    /**
+     * Returns number of columns
+     * @return number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns number of rows
+     * @return number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns number of mines on the board
+     * @return number of mines
+     */
+    public int getMineNum() {
+        return mineNum;
+    }
+
+    /**
+     * Returns value of Cell
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     * @return value of Cell, -1 if mine, 0 - 8 for respective numbers
+     */
+    public int getValue(int x, int y) {
+        return values[y * width + x];
+    }
+
+    /**
+     * Returns boolean signifying if Cell is opened
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     * @return true if Cell is opened
+     */
+    public boolean isOpened(int x, int y) {
+        return (state[y * width + x] & OPENED) != 0;
+    }
+
+    /**
+     * Returns boolean signifying if Cell is flagged
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     * @return true if Cell is flagged
+     */
+    public boolean isFlagged(int x, int y) {
+        return (state[y * width + x] & FLAGGED) != 0;
+    }
+
+    /**
+     * Returns number of flags the player has left to place
+     * @return flags remaining
+     */
+    public int getFlagsRemaining() {
+        return flags;
+    }
+
+    /**
+     * Returns number of flags placed on Cells which are not mines
+     * @return number of wrong flags
+     */
+    public int getWronglyFlaggedCount() {
+        return wronglyFlagged;
+    }
+
+    /**
+     * Returns seconds of gameplay elapsed
+     * @return seconds elapsed
+     */
+    public int getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * Returns boolean signifying if this is player's first click
+     * @return true if first click
+     */
+    public boolean isFirstClick() {
+        return firstClick;
+    }
+
+    /**
+     * Returns boolean signifying if game is lost
+     * @return true if game is lost
+     */
+    public boolean isLost() {
+        return gameLost;
+    }
+
+    /**
+     * Returns boolean signifying if game is won
+     * @return true if game is won
+     */
+    public boolean isWon() {
+        return gameWon;
+    }
+}
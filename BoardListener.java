@@ -0,0 +1,60 @@
+/**
+ * Interface BoardListener
+ * Receives change events published by a Board as the game progresses
+ * Cells are identified by their packed index, y * board.getWidth() + x
+ */
+public interface BoardListener
+{
+    /**
+     * Called once per action with every Cell that action opened (a single Cell or a whole cascade)
+     * @param board Board which changed
+     * @param cells packed indices of opened Cells, only valid until this method returns
+     * @param count number of valid entries in cells
+     */
+    void cellsOpened(Board board, int[] cells, int count);
+
+    /**
+     * Called when a Cell is flagged or unflagged
+     * @param board Board which changed
+     * @param cell packed index of the Cell
+     * @param flagged true if the Cell is now flagged
+     */
+    void flagChanged(Board board, int cell, boolean flagged);
+
+    /**
+     * Called when every non-mine Cell has been opened
+     * @param board Board which was won
+     */
+    void gameWon(Board board);
+
+    /**
+     * Called when a mine is opened
+     * @param board Board which was lost
+     * @param cell packed index of the mine that was opened
+     */
+    void gameLost(Board board, int cell);
+
+    /**
+     * Called once per undo in practice mode with every Cell the undone action had opened
+     * The Cells are unopened again, and may be flagged again if the action had unflagged them
+     * @param board Board which changed
+     * @param cells packed indices of closed Cells, only valid until this method returns
+     * @param count number of valid entries in cells
+     */
+    default void cellsClosed(Board board, int[] cells, int count) {
+    }
+
+    /**
+     * Called when an undo in practice mode reverses the action which won or lost the game
+     * @param board Board whose game is being played again
+     */
+    default void gameResumed(Board board) {
+    }
+
+    /**
+     * Called once per second of gameplay
+     * @param board Board being timed
+     * @param seconds seconds elapsed so far
+     */
+    void tick(Board board, int seconds);
+}
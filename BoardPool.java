@@ -0,0 +1,131 @@
+import java.util.concurrent.*;
+
+/**
+ * Class BoardPool
+ * Keeps a bounded number of generated boards ready for each board specification, so starting a game is a
+ * constant time take instead of generating a whole board
+ * Each specification gets background producers the first time it is asked for, which generate boards
+ * until its pool is full and then wait for one to be taken
+ */
+public class BoardPool
+{
+    public static final int DEFAULT_CAPACITY = 4;
+
+    private static final BoardPool SHARED = new BoardPool(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final int producerCount;
+    private final ConcurrentHashMap<String, BlockingQueue<Board>> pools = new ConcurrentHashMap<>();
+    private final ExecutorService producers = Executors.newCachedThreadPool(r -> {
+        Thread th = new Thread(r, "minesweeper-board-pool");
+        th.setDaemon(true);
+        th.setPriority(Thread.MIN_PRIORITY);
+        return th;
+    });
+
+    /**
+     * Constructor, with one producer for each board specification
+     * @param capacity number of ready boards kept for each board specification
+     */
+    public BoardPool(int capacity) {
+        this(capacity, 1);
+    }
+
+    /**
+     * Constructor
+     * @param capacity number of ready boards kept for each board specification
+     * @param producerCount number of threads generating boards for each board specification
+     */
+    public BoardPool(int capacity, int producerCount) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid pool capacity: " + capacity);
+        }
+        if (producerCount <= 0) {
+            throw new IllegalArgumentException("Invalid number of producers: " + producerCount);
+        }
+        this.capacity = capacity;
+        this.producerCount = producerCount;
+    }
+
+    /**
+     * Returns the pool shared by the whole program
+     * @return shared pool
+     */
+    public static BoardPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Starts generating boards of a specification in the background, if not already started
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines
+     */
+    public void prepare(int width, int height, int mineNum) {
+        poolFor(width, height, mineNum);
+    }
+
+    /**
+     * Takes a generated board, ready for its first click; only generates one on the calling thread if none are ready
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines
+     * @return generated Board with no listeners
+     */
+    public Board take(int width, int height, int mineNum) {
+        Board b = poolFor(width, height, mineNum).poll();
+        if (b == null) {
+            b = new Board(width, height, mineNum);
+            b.generate();
+        }
+        return b;
+    }
+
+    /**
+     * Returns number of boards ready for a specification
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines
+     * @return ready board count
+     */
+    public int available(int width, int height, int mineNum) {
+        BlockingQueue<Board> pool = pools.get(width + "x" + height + "/" + mineNum);
+        return pool == null ? 0 : pool.size();
+    }
+
+    /**
+     * Returns the pool for a specification, creating it and its producers if needed
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines
+     * @return pool of ready boards
+     */
+    private BlockingQueue<Board> poolFor(int width, int height, int mineNum) {
+        return pools.computeIfAbsent(width + "x" + height + "/" + mineNum, key -> {
+            // Checks the specification here, so an invalid one fails in the caller rather than the producer
+            Board.checkSpecification(width, height, mineNum);
+            BlockingQueue<Board> pool = new ArrayBlockingQueue<>(capacity);
+            for (int p = 0; p < producerCount; p++) {
+                producers.execute(() -> {
+                    try {
+                        while (true) {
+                            Board b = new Board(width, height, mineNum);
+                            b.generate();
+                            pool.put(b);
+                        }
+                    } catch (InterruptedException e) {
+                        // Pool is shutting down
+                    }
+                });
+            }
+            return pool;
+        });
+    }
+
+    /**
+     * Stops every producer; boards already in the pools can still be taken
+     */
+    public void shutdown() {
+        producers.shutdownNow();
+    }
+}
@@ -0,0 +1,306 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Class BotEnvironments
+ * Many headless games of Minesweeper driven programmatically, for training and evaluating agents
+ * Every game has the same dimensions, and what a player could see of every game is kept in one shared
+ * observation array which agents read directly: game k's Cells are at k * getCellsPerEnv() + y * width + x
+ * Actions are given in batches, and each action's outcome is written into caller supplied arrays,
+ * so a step allocates nothing
+ * Seeded environments regenerate their boards on reset so runs can be repeated; unseeded ones take
+ * boards generated in the background from their own BoardPool, holding a ready board for every game
+ */
+public class BotEnvironments
+{
+    // Observation codes; opened Cells show their value, 0 - 8
+    public static final byte HIDDEN = -2;
+    public static final byte FLAG = -3;
+    public static final byte MINE = Board.MINE; // only shown for the mine which lost the game
+
+    // Action codes
+    public static final byte REVEAL_ACTION = 0;
+    public static final byte FLAG_ACTION = 1;
+
+    // Outcome codes
+    public static final byte NO_CHANGE = 0;
+    public static final byte OPENED = 1;
+    public static final byte FLAGGED = 2;
+    public static final byte UNFLAGGED = 3;
+    public static final byte WON = 4;
+    public static final byte LOST = 5;
+
+    // Number of games stepped together by one thread in lockstep steps
+    private static final int BLOCK = 64;
+
+    private final int width;
+    private final int height;
+    private final int cellsPerEnv;
+    private final int mineNum;
+    private final Board[] boards;
+    private final ObservationListener[] listeners;
+    private final byte[] observations;
+
+    // Source of ready boards for unseeded environments, null if seeded
+    private final BoardPool pool;
+
+    // Cells opened in each game by the action being applied, counted by the game's listener
+    private final int[] openedByAction;
+
+    /**
+     * Constructor, creates and generates every game
+     * @param count number of games
+     * @param width number of columns of each game
+     * @param height number of rows of each game
+     * @param mineNum number of mines in each game
+     * @param seed seed from which every game's boards are derived; equal seeds give equal games
+     */
+    public BotEnvironments(int count, int width, int height, int mineNum, long seed) {
+        this(count, width, height, mineNum, seed, null);
+    }
+
+    /**
+     * Constructor, takes every game's board from a BoardPool of its own, which keeps a ready board for every game
+     * and generates them on all but one core; a reset only generates on the caller's thread when the games finish
+     * faster than the pool can refill
+     * close() stops the pool's threads
+     * @param count number of games
+     * @param width number of columns of each game
+     * @param height number of rows of each game
+     * @param mineNum number of mines in each game
+     */
+    public BotEnvironments(int count, int width, int height, int mineNum) {
+        this(count, width, height, mineNum, 0,
+            new BoardPool(Math.max(count, 1), Math.max(Runtime.getRuntime().availableProcessors() - 1, 1)));
+    }
+
+    /**
+     * Constructor
+     * @param count number of games
+     * @param width number of columns of each game
+     * @param height number of rows of each game
+     * @param mineNum number of mines in each game
+     * @param seed seed from which every game's boards are derived, unused with a pool
+     * @param pool source of ready boards, or null to generate seeded boards
+     */
+    private BotEnvironments(int count, int width, int height, int mineNum, long seed, BoardPool pool) {
+        Board.checkSpecification(width, height, mineNum);
+        // Every game's observations share one array
+        if (count <= 0 || (long) count * width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid number of games: " + count + " of " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.mineNum = mineNum;
+        this.pool = pool;
+        cellsPerEnv = width * height;
+        boards = new Board[count];
+        listeners = new ObservationListener[count];
+        observations = new byte[count * cellsPerEnv];
+        openedByAction = new int[count];
+        if (pool != null) {
+            pool.prepare(width, height, mineNum);
+        }
+        for (int e = 0; e < count; e++) {
+            listeners[e] = new ObservationListener(e);
+            if (pool == null) {
+                boards[e] = new Board(width, height, mineNum, seed + e * 0x9E3779B97F4A7C15L);
+                boards[e].addBoardListener(listeners[e]);
+            }
+            reset(e);
+        }
+    }
+
+    /**
+     * Inner class ObservationListener
+     * Keeps one game's part of the observation array up to date
+     */
+    class ObservationListener implements BoardListener {
+        private final int env;
+        private final int offset;
+
+        ObservationListener(int env) {
+            this.env = env;
+            offset = env * cellsPerEnv;
+        }
+
+        public void cellsOpened(Board b, int[] cells, int count) {
+            for (int k = 0; k < count; k++) {
+                int x = cells[k] % width;
+                int y = cells[k] / width;
+                observations[offset + cells[k]] = (byte) b.getValue(x, y);
+            }
+            openedByAction[env] += count;
+        }
+
+        public void flagChanged(Board b, int cell, boolean flagged) {
+            observations[offset + cell] = flagged ? FLAG : HIDDEN;
+        }
+
+        public void gameWon(Board b) {
+            // Nothing more to show
+        }
+
+        public void gameLost(Board b, int cell) {
+            observations[offset + cell] = MINE;
+        }
+
+        public void tick(Board b, int seconds) {
+            // Bots are not timed
+        }
+    }
+
+    /**
+     * Starts a new game in one environment
+     * @param env environment number
+     */
+    public void reset(int env) {
+        if (pool == null) {
+            boards[env].generate();
+        } else {
+            if (boards[env] != null) {
+                boards[env].removeBoardListener(listeners[env]);
+            }
+            boards[env] = pool.take(width, height, mineNum);
+            boards[env].addBoardListener(listeners[env]);
+        }
+        Arrays.fill(observations, env * cellsPerEnv, (env + 1) * cellsPerEnv, HIDDEN);
+    }
+
+    /**
+     * Starts a new game in every environment which has been won or lost
+     * @return number of environments reset
+     */
+    public int resetFinished() {
+        int n = 0;
+        for (int e = 0; e < boards.length; e++) {
+            if (isDone(e)) {
+                reset(e);
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Applies one action to every environment at once, spreading environments across all cores
+     * Entry k of each array belongs to environment k
+     * @param cells packed index y * width + x of the Cell to act on, or negative for no action
+     * @param actions REVEAL_ACTION or FLAG_ACTION
+     * @param outcomes receives an outcome code per environment
+     * @param opened receives number of Cells opened per environment
+     */
+    public void step(int[] cells, byte[] actions, byte[] outcomes, int[] opened) {
+        int blocks = (boards.length + BLOCK - 1) / BLOCK;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            for (int e = block * BLOCK; e < Math.min(boards.length, (block + 1) * BLOCK); e++) {
+                if (cells[e] < 0) {
+                    outcomes[e] = NO_CHANGE;
+                    opened[e] = 0;
+                } else {
+                    outcomes[e] = apply(e, cells[e], actions[e]);
+                    opened[e] = openedByAction[e];
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies a batch of actions in order on the calling thread; any environment may appear any number of times
+     * @param count number of actions
+     * @param envs environment of each action
+     * @param cells packed index y * width + x of each action's Cell
+     * @param actions REVEAL_ACTION or FLAG_ACTION
+     * @param outcomes receives an outcome code per action
+     * @param opened receives number of Cells opened per action
+     */
+    public void step(int count, int[] envs, int[] cells, byte[] actions, byte[] outcomes, int[] opened) {
+        for (int k = 0; k < count; k++) {
+            outcomes[k] = apply(envs[k], cells[k], actions[k]);
+            opened[k] = openedByAction[envs[k]];
+        }
+    }
+
+    /**
+     * Applies one action to one game
+     * @param env environment number
+     * @param cell packed index of Cell
+     * @param action REVEAL_ACTION or FLAG_ACTION
+     * @return outcome code
+     */
+    private byte apply(int env, int cell, byte action) {
+        Board b = boards[env];
+        int x = cell % width;
+        int y = cell / width;
+        openedByAction[env] = 0;
+        if (b.isLost() || b.isWon()) {
+            return NO_CHANGE;
+        }
+        if (action == FLAG_ACTION) {
+            boolean wasFlagged = b.isFlagged(x, y);
+            b.flag(x, y);
+            if (b.isFlagged(x, y) == wasFlagged) {
+                return NO_CHANGE;
+            }
+            return wasFlagged ? UNFLAGGED : FLAGGED;
+        }
+        b.reveal(x, y);
+        if (b.isLost()) {
+            return LOST;
+        } else if (b.isWon()) {
+            return WON;
+        }
+        return openedByAction[env] > 0 ? OPENED : NO_CHANGE;
+    }
+
+    /**
+     * Returns what a player could see of every game, shared rather than copied; only read it between steps
+     * @return observation array, game k's Cells at k * getCellsPerEnv() + y * width + x
+     */
+    public byte[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * Returns number of Cells in each game
+     * @return width * height
+     */
+    public int getCellsPerEnv() {
+        return cellsPerEnv;
+    }
+
+    /**
+     * Returns number of environments
+     * @return environment count
+     */
+    public int getEnvCount() {
+        return boards.length;
+    }
+
+    /**
+     * Returns boolean signifying if an environment's game has been won or lost
+     * @param env environment number
+     * @return true if game is over
+     */
+    public boolean isDone(int env) {
+        return boards[env].isWon() || boards[env].isLost();
+    }
+
+    /**
+     * Returns the Board behind an environment, for scoring; agents should only use the observations
+     * @param env environment number
+     * @return environment's Board
+     */
+    public Board getBoard(int env) {
+        return boards[env];
+    }
+
+    /**
+     * Stops generating boards in the background; unseeded environments should be closed once no longer used
+     */
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,586 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Class BroadcastService
+ * Streams a live game to any number of spectators, either local subscribers or clients connected to a local socket
+ * A spectator first receives a keyframe with every Cell of the board packed into 4 bits, then a stream of delta
+ * frames, each holding every Cell changed since the last frame as one variable-length record
+ * Changes are collected from the Board's events and sealed into one frame per flush(), normally once per screen
+ * frame; each frame is encoded once into a read-only buffer which every spectator is sent a view of, and frames are
+ * handed to spectators by a single broadcast thread, so a move costs the same however many spectators are watching
+ *
+ * Every frame is a 4 byte big-endian length followed by: type (KEYFRAME or DELTA), sequence number, status (WON and
+ * LOST bits) and seconds, then for a keyframe the width, height and (width * height + 1) / 2 bytes of Cell codes,
+ * low nibble first, and for a delta the number of records and the records, each (cell - previous cell) << 4 | code
+ * Numbers are zigzag variable-length encoded, 7 bits per byte
+ */
+public class BroadcastService implements BoardListener
+{
+    // Cell codes; opened Cells show their value, 0 - 8
+    public static final byte HIDDEN = 9;
+    public static final byte FLAG = 10;
+    public static final byte MINE = 11; // only shown for the mine which lost the game
+
+    // Frame types
+    public static final byte KEYFRAME = 0;
+    public static final byte DELTA = 1;
+
+    // Status bits
+    public static final int WON = 1;
+    public static final int LOST = 2;
+
+    // Socket clients this many frames behind are skipped ahead with a new keyframe
+    private static final int MAX_LAG_FRAMES = 1024;
+
+    private final Board board;
+
+    // Changes since the last frame, only touched on the game's thread
+    private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+    private int recordCount = 0;
+    private int previousCell = 0;
+    private boolean statusChanged = false;
+    private int status = 0;
+    private int seconds = 0;
+    private int lostCell = -1;
+    private long sequence = 0;
+
+    // Last frame published; spectators follow the chain of frames from the last one they were sent
+    private Frame tail = new Frame(ByteBuffer.allocate(0), 0);
+    private volatile long tailSequence = 0;
+
+    // Spectators waiting for a keyframe, filled in by the next flush()
+    private final ConcurrentLinkedQueue<Client> joining = new ConcurrentLinkedQueue<>();
+
+    // Broadcast thread and the work handed to it
+    private final Selector selector;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ArrayList<Client> clients = new ArrayList<>();
+    private volatile boolean running = true;
+
+    /**
+     * Constructor, starts watching a Board and starts the broadcast thread
+     * Every method except subscribe(), listen() and close() must be called on the thread playing the game
+     * @param board Board to broadcast
+     */
+    public BroadcastService(Board board) throws IOException {
+        this.board = board;
+        selector = Selector.open();
+        board.addBoardListener(this);
+        Thread th = new Thread(this::serve, "minesweeper-broadcast");
+        th.setDaemon(true);
+        th.start();
+    }
+
+    /**
+     * Interface Subscriber
+     * Local spectator, called on the broadcast thread with every frame in order
+     */
+    public interface Subscriber {
+        /**
+         * Receives one frame; must not block
+         * @param frame read-only view of the frame, which never changes and may be kept
+         */
+        void frame(ByteBuffer frame);
+    }
+
+    /**
+     * Class Frame
+     * One encoded frame and the link to the frame after it
+     */
+    static final class Frame {
+        final ByteBuffer data;
+        final long sequence;
+        volatile Frame next;
+        // For keyframes sent to joining spectators, the last published frame the keyframe includes
+        Frame after;
+
+        Frame(ByteBuffer data, long sequence) {
+            this.data = data.asReadOnlyBuffer();
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Class Client
+     * One spectator and how far through the frames it has been sent
+     */
+    static final class Client {
+        final Subscriber subscriber;
+        final SocketChannel channel;
+        SelectionKey key;
+        // Set by flush() once the Client is given a keyframe to start from
+        volatile Frame keyframe;
+        // Last frame sent, null while waiting for a keyframe
+        Frame cursor;
+        // Rest of a frame the socket would not take yet
+        ByteBuffer out;
+
+        Client(Subscriber subscriber, SocketChannel channel) {
+            this.subscriber = subscriber;
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Adds a local spectator, which is sent a keyframe at the next flush()
+     * @param subscriber spectator to send frames to
+     */
+    public void subscribe(Subscriber subscriber) {
+        Client c = new Client(subscriber, null);
+        tasks.add(() -> clients.add(c));
+        joining.add(c);
+        selector.wakeup();
+    }
+
+    /**
+     * Accepts spectators connecting to a port on the loopback address
+     * @param port port to listen on, or 0 for any free port
+     * @return port listened on
+     */
+    public int listen(int port) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        tasks.add(() -> {
+            try {
+                server.register(selector, SelectionKey.OP_ACCEPT);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        selector.wakeup();
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Stops broadcasting, disconnecting every socket spectator
+     * The Board's listeners may only be changed on the game's thread, so this stops listening to it at the next flush()
+     */
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    public void cellsOpened(Board b, int[] cells, int count) {
+        int w = b.getWidth();
+        for (int k = 0; k < count; k++) {
+            record(cells[k], b.getValue(cells[k] % w, cells[k] / w));
+        }
+    }
+
+    public void cellsClosed(Board b, int[] cells, int count) {
+        int w = b.getWidth();
+        for (int k = 0; k < count; k++) {
+            record(cells[k], b.isFlagged(cells[k] % w, cells[k] / w) ? FLAG : HIDDEN);
+        }
+    }
+
+    public void flagChanged(Board b, int cell, boolean flagged) {
+        record(cell, flagged ? FLAG : HIDDEN);
+    }
+
+    public void gameWon(Board b) {
+        status = WON;
+        statusChanged = true;
+    }
+
+    public void gameLost(Board b, int cell) {
+        record(cell, MINE);
+        lostCell = cell;
+        status = LOST;
+        statusChanged = true;
+    }
+
+    public void gameResumed(Board b) {
+        if (lostCell >= 0) {
+            record(lostCell, b.isFlagged(lostCell % b.getWidth(), lostCell / b.getWidth()) ? FLAG : HIDDEN);
+            lostCell = -1;
+        }
+        status = 0;
+        statusChanged = true;
+    }
+
+    public void tick(Board b, int seconds) {
+        this.seconds = seconds;
+        statusChanged = true;
+    }
+
+    /**
+     * Adds one changed Cell to the next delta frame
+     * @param cell packed index of Cell
+     * @param code Cell code
+     */
+    private void record(int cell, int code) {
+        VarLong.write(records, ((long) cell - previousCell) << 4 | code);
+        previousCell = cell;
+        recordCount++;
+    }
+
+    /**
+     * Seals the changes since the last flush into one delta frame, gives any new spectators a keyframe,
+     * and wakes the broadcast thread; cheap when nothing has changed
+     */
+    public void flush() {
+        if (!running) {
+            // Closed from another thread; leaving the Board is done here, where its listeners are not being called
+            board.removeBoardListener(this);
+            return;
+        }
+        boolean published = false;
+        if (recordCount > 0 || statusChanged) {
+            ByteArrayOutputStream header = new ByteArrayOutputStream(24);
+            writeHeader(header, DELTA, ++sequence);
+            VarLong.write(header, recordCount);
+            publish(header, records.toByteArray());
+            records.reset();
+            recordCount = 0;
+            previousCell = 0;
+            statusChanged = false;
+            published = true;
+        }
+        if (!joining.isEmpty()) {
+            // One keyframe is shared by everyone joining at this frame
+            Frame k = new Frame(keyframe(sequence), sequence);
+            k.after = tail;
+            Client c;
+            while ((c = joining.poll()) != null) {
+                c.keyframe = k;
+            }
+            published = true;
+        }
+        if (published) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Starts the stream again from a keyframe, sent to every spectator; call after the Board is generated again
+     */
+    public void reset() {
+        records.reset();
+        recordCount = 0;
+        previousCell = 0;
+        statusChanged = false;
+        status = 0;
+        seconds = 0;
+        lostCell = -1;
+        Frame k = new Frame(keyframe(++sequence), sequence);
+        tail.next = k;
+        tail = k;
+        tailSequence = sequence;
+        selector.wakeup();
+    }
+
+    /**
+     * Appends a delta frame to the chain of published frames
+     * @param header encoded frame header
+     * @param body encoded records
+     */
+    private void publish(ByteArrayOutputStream header, byte[] body) {
+        ByteBuffer data = ByteBuffer.allocate(4 + header.size() + body.length);
+        data.putInt(header.size() + body.length);
+        data.put(header.toByteArray());
+        data.put(body);
+        data.flip();
+        Frame f = new Frame(data, sequence);
+        tail.next = f;
+        tail = f;
+        tailSequence = sequence;
+    }
+
+    /**
+     * Encodes every Cell of the board as it is now
+     * @param seq sequence number of the last frame the keyframe includes
+     * @return encoded keyframe
+     */
+    private ByteBuffer keyframe(long seq) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        ByteArrayOutputStream header = new ByteArrayOutputStream(32);
+        writeHeader(header, KEYFRAME, seq);
+        VarLong.write(header, width);
+        VarLong.write(header, height);
+        ByteBuffer data = ByteBuffer.allocate(4 + header.size() + (width * height + 1) / 2);
+        data.putInt(data.capacity() - 4);
+        data.put(header.toByteArray());
+        int packed = 0;
+        for (int i = 0; i < width * height; i++) {
+            int x = i % width;
+            int y = i / width;
+            int code;
+            if (i == lostCell) {
+                code = MINE;
+            } else if (board.isOpened(x, y)) {
+                code = board.getValue(x, y);
+            } else {
+                code = board.isFlagged(x, y) ? FLAG : HIDDEN;
+            }
+            // Two Cells per byte, low nibble first
+            if ((i & 1) == 0) {
+                packed = code;
+            } else {
+                data.put((byte) (packed | code << 4));
+            }
+        }
+        if ((width * height & 1) != 0) {
+            data.put((byte) packed);
+        }
+        data.flip();
+        return data;
+    }
+
+    /**
+     * Writes the fields every frame starts with
+     * @param out stream to write to
+     * @param type KEYFRAME or DELTA
+     * @param seq frame sequence number
+     */
+    private void writeHeader(ByteArrayOutputStream out, byte type, long seq) {
+        out.write(type);
+        VarLong.write(out, seq);
+        out.write(status);
+        VarLong.write(out, seconds);
+    }
+
+    /**
+     * Broadcast thread, accepts socket spectators and sends every spectator the frames it has not been sent
+     */
+    private void serve() {
+        try {
+            while (running) {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.isValid() && key.isAcceptable()) {
+                        SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+                        if (channel != null) {
+                            channel.configureBlocking(false);
+                            Client c = new Client(null, channel);
+                            c.key = channel.register(selector, 0, c);
+                            clients.add(c);
+                            joining.add(c);
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+                clients.removeIf(c -> !send(c));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    // Already closed
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    /**
+     * Sends a spectator every frame it has not been sent, as far as its socket will take them
+     * @param c spectator
+     * @return false if the spectator has gone and should be removed
+     */
+    private boolean send(Client c) {
+        try {
+            while (true) {
+                if (c.out != null) {
+                    c.channel.write(c.out);
+                    if (c.out.hasRemaining()) {
+                        // A spectator which has stopped reading would otherwise keep every later frame alive;
+                        // it finishes the frame it is on and then starts again from a keyframe
+                        if (isLagging(c)) {
+                            resync(c);
+                        }
+                        // Carries on once the socket can take more
+                        c.key.interestOps(SelectionKey.OP_WRITE);
+                        return true;
+                    }
+                    c.out = null;
+                    c.key.interestOps(0);
+                }
+                ByteBuffer next = nextFrame(c);
+                if (next == null) {
+                    return true;
+                }
+                if (c.channel == null) {
+                    c.subscriber.frame(next);
+                } else {
+                    c.out = next;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (c.channel != null) {
+                try {
+                    c.channel.close();
+                } catch (IOException ignored) {
+                    // Already closed
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the next frame to send a spectator, and moves it past that frame
+     * @param c spectator
+     * @return view of the next frame, or null if it is up to date or waiting for a keyframe
+     */
+    private ByteBuffer nextFrame(Client c) {
+        Frame k = c.keyframe;
+        if (k != null) {
+            c.keyframe = null;
+            c.cursor = k.after;
+            return k.data.duplicate();
+        }
+        if (c.cursor == null || c.cursor.next == null) {
+            return null;
+        }
+        if (isLagging(c)) {
+            // Too far behind to catch up frame by frame
+            resync(c);
+            return null;
+        }
+        c.cursor = c.cursor.next;
+        return c.cursor.data.duplicate();
+    }
+
+    /**
+     * Checks whether a spectator is more than MAX_LAG_FRAMES behind, counting from the keyframe it is waiting to
+     * be sent if it has one
+     * @param c spectator
+     * @return true if the spectator should start again from a new keyframe
+     */
+    private boolean isLagging(Client c) {
+        Frame k = c.keyframe;
+        Frame from = k != null ? k.after : c.cursor;
+        return from != null && tailSequence - from.sequence > MAX_LAG_FRAMES;
+    }
+
+    /**
+     * Lets go of the frames a spectator has not been sent, and has it given a keyframe at the next flush()
+     * @param c spectator, not already waiting in joining
+     */
+    private void resync(Client c) {
+        c.cursor = null;
+        c.keyframe = null;
+        joining.add(c);
+    }
+
+    /**
+     * Class Viewer
+     * Rebuilds what a spectator sees of the game from the frames it is sent
+     */
+    public static class Viewer {
+        private int width;
+        private int height;
+        private byte[] codes = new byte[0];
+        private long sequence = -1;
+        private int status;
+        private int seconds;
+
+        /**
+         * Reads the next frame from a socket spectator's stream
+         * @param in stream connected to a BroadcastService
+         * @return the frame
+         */
+        public static ByteBuffer readFrame(DataInputStream in) throws IOException {
+            byte[] frame = new byte[4 + in.readInt()];
+            in.readFully(frame, 4, frame.length - 4);
+            return ByteBuffer.wrap(frame);
+        }
+
+        /**
+         * Applies one frame
+         * @param frame frame, starting with its length
+         * @return false if the frame was skipped because it does not follow the frames applied so far
+         */
+        public boolean apply(ByteBuffer frame) {
+            ByteBuffer in = frame.duplicate();
+            in.getInt();
+            byte type = in.get();
+            long seq = VarLong.read(in);
+            if (type == DELTA && seq != sequence + 1) {
+                return false;
+            }
+            sequence = seq;
+            status = in.get();
+            seconds = (int) VarLong.read(in);
+            if (type == KEYFRAME) {
+                width = (int) VarLong.read(in);
+                height = (int) VarLong.read(in);
+                codes = new byte[width * height];
+                for (int i = 0; i < codes.length; i += 2) {
+                    byte packed = in.get();
+                    codes[i] = (byte) (packed & 0xF);
+                    if (i + 1 < codes.length) {
+                        codes[i + 1] = (byte) ((packed >> 4) & 0xF);
+                    }
+                }
+            } else {
+                long count = VarLong.read(in);
+                int cell = 0;
+                for (long k = 0; k < count; k++) {
+                    long r = VarLong.read(in);
+                    cell += (int) (r >> 4);
+                    codes[cell] = (byte) (r & 0xF);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns what is shown of a Cell
+         * @param x x-position of Cell
+         * @param y y-position of Cell
+         * @return Cell code, 0 - 8 for an opened Cell
+         */
+        public int getCode(int x, int y) {
+            return codes[y * width + x];
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getSeconds() {
+            return seconds;
+        }
+
+        public boolean isWon() {
+            return (status & WON) != 0;
+        }
+
+        public boolean isLost() {
+            return (status & LOST) != 0;
+        }
+
+        /**
+         * Returns sequence number of the last frame applied
+         * @return sequence number, -1 before the first keyframe
+         */
+        public long getSequence() {
+            return sequence;
+        }
+    }
+}
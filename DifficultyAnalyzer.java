@@ -0,0 +1,502 @@
+import java.io.*;
+import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Class DifficultyAnalyzer
+ * Rates how hard a generated board is, from its layout alone:
+ *  - 3BV, the fewest clicks that clear the board: one per opening plus one per safe Cell no opening reaches
+ *  - openings, connected regions of empty Cells, each cleared by one click
+ *  - islands, connected groups of the safe Cells no opening reaches
+ *  - guesses, how often a logical solver gets stuck and has to open a Cell it cannot prove safe
+ * The solver starts on the first empty Cell (or safe Cell if there is none), since the first click is always safe,
+ * and opens and flags Cells using each number on its own and then pairs of numbers whose unknown neighbors overlap
+ * An analyzer reuses its buffers between boards and is not thread safe; rate() runs one per thread
+ */
+public class DifficultyAnalyzer
+{
+    // Difficulty of one guess, counted in clicks
+    public static final int GUESS_WEIGHT = 5;
+
+    // Solver knowledge of each Cell
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte KNOWN_MINE = 2;
+
+    private static final ThreadLocal<DifficultyAnalyzer> PER_THREAD = ThreadLocal.withInitial(DifficultyAnalyzer::new);
+
+    private int width;
+    private int height;
+    private byte[] values = new byte[0];
+    private byte[] known = new byte[0];
+    private boolean[] covered = new boolean[0];
+    private int[] stack = new int[0];
+    private int[] checks = new int[0];
+    private int checkCount;
+    private boolean[] queued = new boolean[0];
+    private int unknownSafe;
+
+    /**
+     * Class Rating
+     * Difficulty of one board
+     */
+    public static class Rating {
+        public final long seed;
+        public final int width;
+        public final int height;
+        public final int mineNum;
+        public final int bbbv;
+        public final int openings;
+        public final int islands;
+        public final int guesses;
+
+        Rating(long seed, int width, int height, int mineNum, int bbbv, int openings, int islands, int guesses) {
+            this.seed = seed;
+            this.width = width;
+            this.height = height;
+            this.mineNum = mineNum;
+            this.bbbv = bbbv;
+            this.openings = openings;
+            this.islands = islands;
+            this.guesses = guesses;
+        }
+
+        /**
+         * Returns the board's difficulty, counted in clicks: 3BV plus GUESS_WEIGHT per guess
+         * @return difficulty
+         */
+        public int getDifficulty() {
+            return bbbv + GUESS_WEIGHT * guesses;
+        }
+
+        /**
+         * Returns a score for winning this board, comparable across boards: difficulty cleared per 100 seconds,
+         * with each wrong flag costing 10 seconds; higher is better
+         * @param seconds seconds taken
+         * @param wrongFlags number of wrongly flagged Cells
+         * @return normalized score
+         */
+        public long getNormalizedScore(int seconds, int wrongFlags) {
+            return Math.round(100.0 * getDifficulty() / Math.max(1, seconds + 10 * wrongFlags));
+        }
+
+        public String toString() {
+            return seed + "," + width + "," + height + "," + mineNum + "," + bbbv + "," + openings + "," + islands + "," + guesses;
+        }
+    }
+
+    /**
+     * Rates a board generated from a seed
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines
+     * @param seed seed the board is generated from
+     * @return rating of the board
+     */
+    public static Rating rate(int width, int height, int mineNum, long seed) {
+        Board b = new Board(width, height, mineNum, seed);
+        b.generate();
+        return PER_THREAD.get().analyze(b, seed);
+    }
+
+    /**
+     * Rates a run of seeded boards on every core, lazily, in no particular order
+     * @param width number of columns
+     * @param height number of rows
+     * @param mineNum number of mines
+     * @param firstSeed seed of the first board
+     * @param count number of boards, with consecutive seeds
+     * @return stream of ratings
+     */
+    public static Stream<Rating> rate(int width, int height, int mineNum, long firstSeed, long count) {
+        Board.checkSpecification(width, height, mineNum);
+        return LongStream.range(firstSeed, firstSeed + count).parallel().mapToObj(seed -> rate(width, height, mineNum, seed));
+    }
+
+    /**
+     * Rates a board's mine layout, ignoring which Cells are opened; a board whose first click moved a mine is
+     * rated as it is after the move
+     * @param b generated Board
+     * @param seed seed b was generated from, only recorded in the rating
+     * @return rating of the board
+     */
+    public Rating analyze(Board b, long seed) {
+        width = b.getWidth();
+        height = b.getHeight();
+        int n = width * height;
+        if (values.length < n) {
+            values = new byte[n];
+            known = new byte[n];
+            covered = new boolean[n];
+            stack = new int[n];
+            checks = new int[n];
+            queued = new boolean[n];
+        }
+        for (int i = 0; i < n; i++) {
+            values[i] = (byte) b.getValue(i % width, i / width);
+        }
+
+        // Openings, and every Cell they open
+        Arrays.fill(covered, 0, n, false);
+        int openings = 0;
+        for (int i = 0; i < n; i++) {
+            if (values[i] == 0 && !covered[i]) {
+                openings++;
+                int size = 0;
+                stack[size++] = i;
+                covered[i] = true;
+                while (size > 0) {
+                    int c = stack[--size];
+                    if (values[c] != 0) {
+                        continue;
+                    }
+                    int cX = c % width;
+                    int cY = c / width;
+                    for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+                        for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                            int j = y * width + x;
+                            if (!covered[j]) {
+                                covered[j] = true;
+                                stack[size++] = j;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // Safe Cells no opening reaches each need a click, and are grouped into islands
+        int bbbv = openings;
+        int islands = 0;
+        for (int i = 0; i < n; i++) {
+            if (values[i] != Board.MINE && !covered[i]) {
+                islands++;
+                int size = 0;
+                stack[size++] = i;
+                covered[i] = true;
+                while (size > 0) {
+                    int c = stack[--size];
+                    bbbv++;
+                    int cX = c % width;
+                    int cY = c / width;
+                    for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+                        for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                            int j = y * width + x;
+                            if (values[j] != Board.MINE && !covered[j]) {
+                                covered[j] = true;
+                                stack[size++] = j;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new Rating(seed, width, height, b.getMineNum(), bbbv, openings, islands, solve());
+    }
+
+    /**
+     * Plays the board with logic alone, opening a safe Cell whenever logic is not enough
+     * @return number of Cells opened without proof that they were safe
+     */
+    private int solve() {
+        int n = width * height;
+        Arrays.fill(known, 0, n, UNKNOWN);
+        Arrays.fill(queued, 0, n, false);
+        checkCount = 0;
+        unknownSafe = 0;
+        int first = -1;
+        for (int i = 0; i < n; i++) {
+            if (values[i] != Board.MINE) {
+                unknownSafe++;
+                if (first < 0 || (values[i] == 0 && values[first] != 0)) {
+                    first = i;
+                }
+            }
+        }
+        open(first);
+
+        int guesses = 0;
+        while (unknownSafe > 0) {
+            // Single numbers, then pairs, and only guesses once neither finds anything
+            while (checkCount > 0) {
+                int c = checks[--checkCount];
+                queued[c] = false;
+                applyNumber(c);
+            }
+            if (unknownSafe == 0 || applyPairs()) {
+                continue;
+            }
+            guesses++;
+            open(pickGuess());
+        }
+        return guesses;
+    }
+
+    /**
+     * Opens or flags the unknown neighbors of an opened Cell when its number alone decides them
+     * @param c packed index of opened Cell
+     */
+    private void applyNumber(int c) {
+        int cX = c % width;
+        int cY = c / width;
+        int unknown = 0;
+        int mines = 0;
+        for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+            for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                int j = y * width + x;
+                if (known[j] == UNKNOWN) {
+                    unknown++;
+                } else if (known[j] == KNOWN_MINE) {
+                    mines++;
+                }
+            }
+        }
+        if (unknown == 0 || (mines != values[c] && values[c] - mines != unknown)) {
+            return;
+        }
+        boolean allMines = mines != values[c];
+        for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+            for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                int j = y * width + x;
+                if (known[j] == UNKNOWN) {
+                    if (allMines) {
+                        markMine(j);
+                    } else {
+                        open(j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks for a pair of opened Cells where one's unknown neighbors are all neighbors of the other, so the
+     * difference in their remaining mines is the number of mines among the other's remaining unknown neighbors,
+     * and opens or flags those when it decides them
+     * @return true if any Cell was opened or flagged
+     */
+    private boolean applyPairs() {
+        int[] unknownA = new int[8];
+        int[] unknownB = new int[8];
+        for (int a = 0; a < width * height; a++) {
+            if (known[a] != SAFE || values[a] == 0) {
+                continue;
+            }
+            int countA = unknownNeighbors(a, unknownA);
+            if (countA == 0) {
+                continue;
+            }
+            int remainingA = values[a] - knownMines(a);
+            int aX = a % width;
+            int aY = a / width;
+            // Only Cells within two rows and columns can share neighbors
+            for (int y = Math.max(aY - 2, 0); y <= Math.min(aY + 2, height - 1); y++) {
+                for (int x = Math.max(aX - 2, 0); x <= Math.min(aX + 2, width - 1); x++) {
+                    int b = y * width + x;
+                    if (b == a || known[b] != SAFE || values[b] == 0) {
+                        continue;
+                    }
+                    int countB = unknownNeighbors(b, unknownB);
+                    if (countB <= countA || !containsAll(unknownB, countB, unknownA, countA)) {
+                        continue;
+                    }
+                    int mines = values[b] - knownMines(b) - remainingA;
+                    int others = countB - countA;
+                    if (mines != 0 && mines != others) {
+                        continue;
+                    }
+                    for (int k = 0; k < countB; k++) {
+                        // An earlier Cell's cascade may already have opened it
+                        if (!contains(unknownA, countA, unknownB[k]) && known[unknownB[k]] == UNKNOWN) {
+                            if (mines == 0) {
+                                open(unknownB[k]);
+                            } else {
+                                markMine(unknownB[k]);
+                            }
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects the unknown neighbors of a Cell
+     * @param c packed index of Cell
+     * @param out receives packed indices of unknown neighbors
+     * @return number of unknown neighbors
+     */
+    private int unknownNeighbors(int c, int[] out) {
+        int cX = c % width;
+        int cY = c / width;
+        int count = 0;
+        for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+            for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                if (known[y * width + x] == UNKNOWN) {
+                    out[count++] = y * width + x;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the neighbors of a Cell known to be mines
+     * @param c packed index of Cell
+     * @return number of known mines around the Cell
+     */
+    private int knownMines(int c) {
+        int cX = c % width;
+        int cY = c / width;
+        int count = 0;
+        for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+            for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                if (known[y * width + x] == KNOWN_MINE) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean contains(int[] cells, int count, int cell) {
+        for (int k = 0; k < count; k++) {
+            if (cells[k] == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsAll(int[] cells, int count, int[] subset, int subsetCount) {
+        for (int k = 0; k < subsetCount; k++) {
+            if (!contains(cells, count, subset[k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Chooses the Cell a player would have to guess: a safe unknown Cell next to an opened one if there is one,
+     * otherwise any safe unknown Cell
+     * @return packed index of Cell to open
+     */
+    private int pickGuess() {
+        int fallback = -1;
+        for (int i = 0; i < width * height; i++) {
+            if (known[i] != UNKNOWN || values[i] == Board.MINE) {
+                continue;
+            }
+            int iX = i % width;
+            int iY = i / width;
+            for (int y = Math.max(iY - 1, 0); y <= Math.min(iY + 1, height - 1); y++) {
+                for (int x = Math.max(iX - 1, 0); x <= Math.min(iX + 1, width - 1); x++) {
+                    if (known[y * width + x] == SAFE) {
+                        return i;
+                    }
+                }
+            }
+            if (fallback < 0) {
+                fallback = i;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Opens a safe Cell for the solver, cascading through empty Cells as the game does
+     * @param start packed index of Cell
+     */
+    private void open(int start) {
+        int size = 0;
+        stack[size++] = start;
+        known[start] = SAFE;
+        unknownSafe--;
+        while (size > 0) {
+            int c = stack[--size];
+            int cX = c % width;
+            int cY = c / width;
+            for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+                for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                    int j = y * width + x;
+                    if (values[c] == 0 && known[j] == UNKNOWN) {
+                        known[j] = SAFE;
+                        unknownSafe--;
+                        stack[size++] = j;
+                    } else if (known[j] == SAFE && values[j] > 0) {
+                        // Opened numbers next to a newly opened Cell may now decide more
+                        check(j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that a Cell is a mine, and rechecks the opened numbers around it
+     * @param c packed index of Cell
+     */
+    private void markMine(int c) {
+        known[c] = KNOWN_MINE;
+        int cX = c % width;
+        int cY = c / width;
+        for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+            for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                int j = y * width + x;
+                if (known[j] == SAFE && values[j] > 0) {
+                    check(j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues an opened number to be checked by applyNumber
+     * @param c packed index of Cell
+     */
+    private void check(int c) {
+        if (!queued[c]) {
+            queued[c] = true;
+            checks[checkCount++] = c;
+        }
+    }
+
+    /**
+     * Rates a run of seeded boards on every core, writing one CSV line per board and a summary at the end
+     * Usage: java DifficultyAnalyzer width height mines firstSeed count [output.csv]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.err.println("Usage: java DifficultyAnalyzer width height mines firstSeed count [output.csv]");
+            return;
+        }
+        int width = Integer.parseInt(args[0]);
+        int height = Integer.parseInt(args[1]);
+        int mineNum = Integer.parseInt(args[2]);
+        long firstSeed = Long.parseLong(args[3]);
+        long count = Long.parseLong(args[4]);
+        long start = System.nanoTime();
+        long[] totals = new long[4];
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(args.length > 5 ? new FileWriter(args[5]) : new OutputStreamWriter(System.out)))) {
+            out.println("seed,width,height,mines,3bv,openings,islands,guesses");
+            rate(width, height, mineNum, firstSeed, count).forEach(r -> {
+                synchronized (totals) {
+                    out.println(r);
+                    totals[0] += r.bbbv;
+                    totals[1] += r.openings;
+                    totals[2] += r.islands;
+                    totals[3] += r.guesses;
+                }
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Rated %d boards in %.1f s (%.0f boards/hour): mean 3BV %.2f, openings %.2f, islands %.2f, guesses %.2f%n",
+            count, seconds, count / seconds * 3600, (double) totals[0] / count, (double) totals[1] / count,
+            (double) totals[2] / count, (double) totals[3] / count);
+    }
+}
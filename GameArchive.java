@@ -0,0 +1,617 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Class GameArchive
+ * Stores finished games in a directory of compressed, column-oriented segment files and answers questions about them
+ * Results are buffered in memory and written SEGMENT_ROWS at a time (or on flush()); each segment stores every column
+ * separately, delta and variable-length encoded and then deflated, with the minimum and maximum of each column in its
+ * header, so queries memory-map each full segment, skip it entirely if its ranges cannot match, and only decode the
+ * columns they need; small segments are read into memory instead, since compact() deletes them and a mapped file
+ * cannot be deleted on every platform until the mapping is garbage collected
+ * Segments smaller than SEGMENT_ROWS (left by flushing early) are merged by compact(), which flush() calls itself
+ * once COMPACT_THRESHOLD of them have built up, so an archive flushed after every game stays a few files
+ */
+public class GameArchive
+{
+    // Numeric columns
+    public static final int WIDTH = 0;
+    public static final int HEIGHT = 1;
+    public static final int MINES = 2;
+    public static final int SECONDS = 3;
+    public static final int WRONG_FLAGS = 4;
+    public static final int WON = 5;
+    public static final int FINISHED_AT = 6;
+    public static final int COLUMNS = 7;
+
+    // Rows per segment file
+    public static final int SEGMENT_ROWS = 65536;
+
+    // Number of segments smaller than SEGMENT_ROWS at which flush() compacts the archive
+    public static final int COMPACT_THRESHOLD = 32;
+
+    private static final int MAGIC = 0x4D534741; // "MSGA"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 4 + COLUMNS * (8 + 8 + 4 + 4) + 2 * (4 + 4);
+
+    private final Path dir;
+
+    // Rows not yet written to a segment
+    private long[][] pending = new long[COLUMNS][64];
+    private final ArrayList<String> pendingPlayers = new ArrayList<>();
+
+    // Number of segment files holding fewer than SEGMENT_ROWS games
+    private int smallSegments;
+
+    /**
+     * Constructor, creates the archive directory if needed
+     * @param dir directory holding the segment files
+     */
+    public GameArchive(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        for (Path p : segmentFiles()) {
+            try (Segment s = new Segment(p)) {
+                if (s.rows < SEGMENT_ROWS) {
+                    smallSegments++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the archive of games played by the current user, in ~/.minesweeper/history
+     * @return the user's archive
+     */
+    public static GameArchive forUser() throws IOException {
+        return new GameArchive(Paths.get(System.getProperty("user.home"), ".minesweeper", "history"));
+    }
+
+    /**
+     * Class Filter
+     * Restricts a query to games whose columns fall in given ranges and, optionally, to one player
+     */
+    public static class Filter {
+        final long[] min = new long[COLUMNS];
+        final long[] max = new long[COLUMNS];
+        String player;
+
+        /**
+         * Constructor, matches every game
+         */
+        public Filter() {
+            Arrays.fill(min, Long.MIN_VALUE);
+            Arrays.fill(max, Long.MAX_VALUE);
+        }
+
+        /**
+         * Only matches games whose column is between min and max, inclusive
+         * @param column numeric column
+         * @param min smallest value to match
+         * @param max largest value to match
+         * @return this filter
+         */
+        public Filter range(int column, long min, long max) {
+            this.min[column] = Math.max(this.min[column], min);
+            this.max[column] = Math.min(this.max[column], max);
+            return this;
+        }
+
+        /**
+         * Only matches games by one player
+         * @param name player name
+         * @return this filter
+         */
+        public Filter player(String name) {
+            player = name;
+            return this;
+        }
+
+        /**
+         * Checks whether a segment could contain matching games
+         * @param s segment to check
+         * @return false if no game in the segment can match
+         */
+        boolean mayMatch(Segment s) {
+            for (int c = 0; c < COLUMNS; c++) {
+                if (s.max(c) < min[c] || s.min(c) > max[c]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Interface RowVisitor
+     * Receives the matching games of a scan
+     */
+    public interface RowVisitor {
+        /**
+         * Called once per matching game
+         * @param row values of the requested columns, indexed by column; other entries are undefined
+         * @param player player name, or null if the player column was not requested
+         */
+        void visit(long[] row, String player);
+    }
+
+    /**
+     * Adds a finished game, writing a segment once SEGMENT_ROWS games are buffered
+     * @param player player name
+     * @param width number of columns of the board
+     * @param height number of rows of the board
+     * @param mineNum number of mines on the board
+     * @param seconds time taken
+     * @param wrongFlags number of wrong flags
+     * @param won true if the game was won
+     * @param finishedAt time the game finished, in milliseconds since the epoch
+     */
+    public synchronized void record(String player, int width, int height, int mineNum, int seconds, int wrongFlags,
+            boolean won, long finishedAt) throws IOException {
+        int row = pendingPlayers.size();
+        if (row == pending[0].length) {
+            for (int c = 0; c < COLUMNS; c++) {
+                pending[c] = Arrays.copyOf(pending[c], row * 2);
+            }
+        }
+        pending[WIDTH][row] = width;
+        pending[HEIGHT][row] = height;
+        pending[MINES][row] = mineNum;
+        pending[SECONDS][row] = seconds;
+        pending[WRONG_FLAGS][row] = wrongFlags;
+        pending[WON][row] = won ? 1 : 0;
+        pending[FINISHED_AT][row] = finishedAt;
+        pendingPlayers.add(player);
+        if (pendingPlayers.size() == SEGMENT_ROWS) {
+            writePending();
+        }
+    }
+
+    /**
+     * Writes buffered games to a new segment file, even if there are fewer than SEGMENT_ROWS, and compacts the
+     * archive once COMPACT_THRESHOLD small segments have built up
+     */
+    public synchronized void flush() throws IOException {
+        writePending();
+        if (smallSegments >= COMPACT_THRESHOLD) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes buffered games, if any, to a new segment file
+     */
+    private void writePending() throws IOException {
+        int rows = pendingPlayers.size();
+        if (rows == 0) {
+            return;
+        }
+        writeSegment(pending, pendingPlayers, rows);
+        pendingPlayers.clear();
+        if (rows < SEGMENT_ROWS) {
+            smallSegments++;
+        }
+    }
+
+    /**
+     * Returns the number of segment files holding fewer than SEGMENT_ROWS games
+     * @return number of small segments
+     */
+    public synchronized int getSmallSegments() {
+        return smallSegments;
+    }
+
+    /**
+     * Rewrites segments holding fewer than SEGMENT_ROWS games (such as those written by single games) into full ones
+     * @return number of segment files removed
+     */
+    public synchronized int compact() throws IOException {
+        writePending();
+        ArrayList<Path> small = new ArrayList<>();
+        int[] all = new int[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            all[c] = c;
+        }
+        for (Path p : segmentFiles()) {
+            try (Segment s = new Segment(p)) {
+                if (s.rows < SEGMENT_ROWS) {
+                    small.add(p);
+                    s.scan(new Filter(), all, true, (row, player) -> {
+                        try {
+                            record(player, (int) row[WIDTH], (int) row[HEIGHT], (int) row[MINES], (int) row[SECONDS],
+                                    (int) row[WRONG_FLAGS], row[WON] != 0, row[FINISHED_AT]);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            }
+        }
+        if (small.size() <= 1) {
+            // Nothing to merge; drops the rows just read back in
+            pendingPlayers.clear();
+            smallSegments = small.size();
+            return 0;
+        }
+        // Full segments written while reading back are not small; at most the last one written here is
+        smallSegments = 0;
+        writePending();
+        for (Path p : small) {
+            Files.delete(p);
+        }
+        return small.size();
+    }
+
+    /**
+     * Calls a visitor with every matching game, in the order they were recorded
+     * Holds the archive's lock, so compaction cannot remove or merge segments during the scan
+     * @param filter games to match
+     * @param columns numeric columns the visitor needs; only these (and those the filter uses) are decoded
+     * @param withPlayer true if the visitor needs player names
+     * @param visitor receives matching games
+     */
+    public synchronized void scan(Filter filter, int[] columns, boolean withPlayer, RowVisitor visitor) throws IOException {
+        for (Path p : segmentFiles()) {
+            try (Segment s = new Segment(p)) {
+                if (filter.mayMatch(s)) {
+                    s.scan(filter, columns, withPlayer, visitor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the median time taken for each board size
+     * @param filter games to include, for example only won games
+     * @return median seconds keyed by "width x height / mines"
+     */
+    public Map<String, Double> medianSecondsByBoardSize(Filter filter) throws IOException {
+        // Times for each size; a board's mine count can exceed any fixed bit field, so the key is the size itself
+        HashMap<BoardSize, LongList> times = new HashMap<>();
+        scan(filter, new int[] { WIDTH, HEIGHT, MINES, SECONDS }, false, (row, player) -> {
+            BoardSize key = new BoardSize(row[WIDTH], row[HEIGHT], row[MINES]);
+            times.computeIfAbsent(key, k -> new LongList()).add(row[SECONDS]);
+        });
+        TreeMap<String, Double> medians = new TreeMap<>();
+        for (Map.Entry<BoardSize, LongList> e : times.entrySet()) {
+            BoardSize key = e.getKey();
+            int n = e.getValue().size;
+            long[] list = e.getValue().items;
+            Arrays.sort(list, 0, n);
+            medians.put(key.width() + "x" + key.height() + "/" + key.mines(),
+                    n % 2 == 1 ? list[n / 2] : (list[n / 2 - 1] + list[n / 2]) / 2.0);
+        }
+        return medians;
+    }
+
+    /**
+     * Finds the average number of wrong flags per game for each player
+     * @param filter games to include
+     * @return wrong flags per game keyed by player name
+     */
+    public Map<String, Double> wrongFlagRateByPlayer(Filter filter) throws IOException {
+        HashMap<String, long[]> totals = new HashMap<>();
+        scan(filter, new int[] { WRONG_FLAGS }, true, (row, player) -> {
+            long[] t = totals.computeIfAbsent(player, k -> new long[2]);
+            t[0] += row[WRONG_FLAGS];
+            t[1]++;
+        });
+        TreeMap<String, Double> rates = new TreeMap<>();
+        for (Map.Entry<String, long[]> e : totals.entrySet()) {
+            rates.put(e.getKey(), (double) e.getValue()[0] / e.getValue()[1]);
+        }
+        return rates;
+    }
+
+    /**
+     * Record BoardSize
+     * Width, height and mine count of a board, as a map key
+     */
+    private record BoardSize(long width, long height, long mines) {
+    }
+
+    /**
+     * Class LongList
+     * Growable array of longs
+     */
+    private static final class LongList {
+        long[] items = new long[16];
+        int size = 0;
+
+        void add(long v) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = v;
+        }
+    }
+
+    /**
+     * Returns every segment file, oldest first
+     * @return segment paths
+     */
+    private List<Path> segmentFiles() throws IOException {
+        ArrayList<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "segment-*.seg")) {
+            for (Path p : stream) {
+                files.add(p);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Writes rows as a new segment file, named after the time so that segments sort oldest first
+     * @param columns numeric column values
+     * @param players player name of each row
+     * @param rows number of rows
+     */
+    private void writeSegment(long[][] columns, List<String> players, int rows) throws IOException {
+        byte[][] encoded = new byte[COLUMNS + 2][];
+        long[] min = new long[COLUMNS];
+        long[] max = new long[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            min[c] = Long.MAX_VALUE;
+            max[c] = Long.MIN_VALUE;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long previous = 0;
+            for (int r = 0; r < rows; r++) {
+                long v = columns[c][r];
+                min[c] = Math.min(min[c], v);
+                max[c] = Math.max(max[c], v);
+                VarLong.write(out, v - previous);
+                previous = v;
+            }
+            encoded[c] = deflate(out.toByteArray());
+        }
+
+        // Players are stored as a dictionary of names followed by each row's index into it
+        LinkedHashMap<String, Integer> dictionary = new LinkedHashMap<>();
+        ByteArrayOutputStream ids = new ByteArrayOutputStream();
+        for (int r = 0; r < rows; r++) {
+            Integer id = dictionary.putIfAbsent(players.get(r), dictionary.size());
+            VarLong.write(ids, id == null ? dictionary.size() - 1 : id);
+        }
+        ByteArrayOutputStream names = new ByteArrayOutputStream();
+        DataOutputStream namesOut = new DataOutputStream(names);
+        namesOut.writeInt(dictionary.size());
+        for (String name : dictionary.keySet()) {
+            namesOut.writeUTF(name);
+        }
+        encoded[COLUMNS] = deflate(names.toByteArray());
+        encoded[COLUMNS + 1] = deflate(ids.toByteArray());
+
+        String name = String.format("segment-%019d-%08x.seg", System.currentTimeMillis(), System.nanoTime() & 0xFFFFFFFFL);
+        Path tmp = dir.resolve(name + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(COLUMNS);
+            int offset = HEADER_BYTES;
+            for (int c = 0; c < COLUMNS; c++) {
+                out.writeLong(min[c]);
+                out.writeLong(max[c]);
+                out.writeInt(offset);
+                out.writeInt(encoded[c].length);
+                offset += encoded[c].length;
+            }
+            for (int k = COLUMNS; k < COLUMNS + 2; k++) {
+                out.writeInt(offset);
+                out.writeInt(encoded[k].length);
+                offset += encoded[k].length;
+            }
+            for (byte[] e : encoded) {
+                out.write(e);
+            }
+        }
+        // Renamed into place so that readers never see a partly written segment
+        Files.move(tmp, dir.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Class Segment
+     * A memory-mapped segment file
+     */
+    private static final class Segment implements Closeable {
+        final int rows;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        /**
+         * Constructor, checks the file's header, then maps a full segment or reads a small one into memory
+         * @param path segment file
+         */
+        Segment(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                ByteBuffer header = ByteBuffer.allocate(16);
+                if (size < HEADER_BYTES || !readFully(header, 0) || header.getInt(0) != MAGIC
+                        || header.getInt(4) != VERSION || header.getInt(12) != COLUMNS) {
+                    throw new IOException("Not a game archive segment: " + path);
+                }
+                rows = header.getInt(8);
+                if (rows < SEGMENT_ROWS) {
+                    // Small segments are the ones compact() deletes, so they are never mapped
+                    buffer = ByteBuffer.allocate((int) size);
+                    if (!readFully(buffer, 0)) {
+                        throw new IOException("Truncated game archive segment: " + path);
+                    }
+                    channel.close();
+                } else {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Fills a buffer from the file
+         * @param into buffer to fill
+         * @param position file position to read from
+         * @return false if the file ends first
+         */
+        private boolean readFully(ByteBuffer into, long position) throws IOException {
+            while (into.hasRemaining()) {
+                int n = channel.read(into, position);
+                if (n < 0) {
+                    return false;
+                }
+                position += n;
+            }
+            return true;
+        }
+
+        long min(int column) {
+            return buffer.getLong(16 + column * 24);
+        }
+
+        long max(int column) {
+            return buffer.getLong(16 + column * 24 + 8);
+        }
+
+        /**
+         * Inflates one stored block: a numeric column, or COLUMNS for names and COLUMNS + 1 for player ids
+         * @param block block number
+         * @return inflated bytes
+         */
+        private ByteBuffer block(int block) throws IOException {
+            int at = 16 + Math.min(block, COLUMNS) * 24 + (block < COLUMNS ? 16 : (block - COLUMNS) * 8);
+            return ByteBuffer.wrap(inflate(buffer.slice(buffer.getInt(at), buffer.getInt(at + 4))));
+        }
+
+        /**
+         * Decodes one numeric column
+         * @param column column number
+         * @return value of each row
+         */
+        private long[] column(int column) throws IOException {
+            ByteBuffer in = block(column);
+            long[] values = new long[rows];
+            long previous = 0;
+            for (int r = 0; r < rows; r++) {
+                previous += VarLong.read(in);
+                values[r] = previous;
+            }
+            return values;
+        }
+
+        /**
+         * Calls a visitor with every matching row of this segment
+         */
+        void scan(Filter filter, int[] columns, boolean withPlayer, RowVisitor visitor) throws IOException {
+            String[] names = null;
+            int[] ids = null;
+            int wanted = -1;
+            if (withPlayer || filter.player != null) {
+                ByteBuffer in = block(COLUMNS);
+                names = new String[in.getInt()];
+                DataInputStream namesIn = new DataInputStream(new ByteArrayInputStream(in.array(), 4, in.remaining()));
+                for (int k = 0; k < names.length; k++) {
+                    names[k] = namesIn.readUTF();
+                    if (names[k].equals(filter.player)) {
+                        wanted = k;
+                    }
+                }
+                if (filter.player != null && wanted < 0) {
+                    // Player never appears in this segment
+                    return;
+                }
+                ByteBuffer idsIn = block(COLUMNS + 1);
+                ids = new int[rows];
+                for (int r = 0; r < rows; r++) {
+                    ids[r] = (int) VarLong.read(idsIn);
+                }
+            }
+
+            // Decodes requested columns, and any column whose filter range is narrower than this segment's
+            long[][] decoded = new long[COLUMNS][];
+            for (int c : columns) {
+                decoded[c] = column(c);
+            }
+            ArrayList<Integer> checked = new ArrayList<>();
+            for (int c = 0; c < COLUMNS; c++) {
+                if (filter.min[c] > min(c) || filter.max[c] < max(c)) {
+                    if (decoded[c] == null) {
+                        decoded[c] = column(c);
+                    }
+                    checked.add(c);
+                }
+            }
+
+            long[] row = new long[COLUMNS];
+            rowLoop:
+            for (int r = 0; r < rows; r++) {
+                if (filter.player != null && ids[r] != wanted) {
+                    continue;
+                }
+                for (int c : checked) {
+                    if (decoded[c][r] < filter.min[c] || decoded[c][r] > filter.max[c]) {
+                        continue rowLoop;
+                    }
+                }
+                for (int c : columns) {
+                    row[c] = decoded[c][r];
+                }
+                visitor.visit(row, withPlayer ? names[ids[r]] : null);
+            }
+        }
+
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Compresses bytes
+     * @param data bytes to compress
+     * @return compressed bytes
+     */
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompresses bytes written by deflate
+     * @param data compressed bytes
+     * @return decompressed bytes
+     */
+    private static byte[] inflate(ByteBuffer data) throws IOException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.remaining() * 4);
+        byte[] chunk = new byte[8192];
+        try {
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated game archive segment");
+                }
+                out.write(chunk, 0, n);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt game archive segment", e);
+        } finally {
+            inflater.end();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,416 @@
+import java.util.*;
+
+/**
+ * Class LazyBoard
+ * A Minesweeper board which can be far larger than memory, up to Integer.MAX_VALUE Cells on each side
+ * The board is split into CHUNK_SIZE x CHUNK_SIZE chunks, and each chunk's mines are derived from a hash of
+ * the board seed and the chunk's position, so a chunk is only generated the first time one of its Cells is touched
+ * Only touched chunks are stored, so memory and startup time depend on the explored area rather than the board size
+ * Mines are placed independently in each Cell with the given density, so there is no fixed mine count and
+ * no win condition; the game goes on until a mine is opened
+ * Below about 9.5% density the empty Cells form a region without end, so one call opens at most CASCADE_BUDGET
+ * Cells; the rest of the cascade is kept as a frontier and continued by continueCascade()
+ */
+public class LazyBoard
+{
+    public static final int CHUNK_BITS = 6;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Most Cells a single reveal() or continueCascade() opens
+    public static final int CASCADE_BUDGET = 1 << 20;
+
+    // Board specification
+    private final int width;
+    private final int height;
+    private final long seed;
+    private final long mineThreshold;
+
+    // Chunks touched so far, keyed by chunk x in the high half and chunk y in the low half
+    private final HashMap<Long, Chunk> chunks = new HashMap<>();
+
+    // Variables to keep track of how the game progresses
+    private long openedCount = 0;
+    private long flagCount = 0;
+    private boolean gameLost = false;
+    private boolean firstClick = true;
+
+    // The first Cell opened and its surroundings are never mines
+    private int safeX = -2;
+    private int safeY = -2;
+
+    // Empty Cells opened by the cascade whose surroundings are not yet opened, a ring buffer of queueSize
+    // entries from queueHead; each entry is x in the high half and y in the low half
+    private long[] queue = new long[64];
+    private int queueHead = 0;
+    private int queueSize = 0;
+
+    /**
+     * Class Chunk
+     * Values and states of one CHUNK_SIZE x CHUNK_SIZE block of Cells, indexed by localY * CHUNK_SIZE + localX
+     */
+    private static final class Chunk {
+        final byte[] values = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        final byte[] state = new byte[CHUNK_SIZE * CHUNK_SIZE];
+    }
+
+    /**
+     * Constructor
+     * @param width number of columns, up to Integer.MAX_VALUE
+     * @param height number of rows, up to Integer.MAX_VALUE
+     * @param density chance of each Cell being a mine, between 0 and 1
+     * @param seed seed from which every chunk is derived; equal seeds give equal boards
+     */
+    public LazyBoard(int width, int height, double density, long seed) {
+        if (width <= 0 || height <= 0 || !(density >= 0 && density < 1)) {
+            throw new IllegalArgumentException("Invalid board: " + width + "x" + height + " with density " + density);
+        }
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+        // Compared against the top 53 bits of a hash, so that P(hash < threshold) == density
+        mineThreshold = (long) (density * (1L << 53));
+    }
+
+    /**
+     * Opens a Cell, cascading if it is empty, up to CASCADE_BUDGET Cells
+     * If this is the first click, the Cell and its surroundings are guaranteed not to be mines
+     * Does nothing if the game is already lost or the Cell is already opened
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     * @return number of Cells opened
+     */
+    public int reveal(int x, int y) {
+        checkBounds(x, y);
+        if (gameLost) {
+            return 0;
+        }
+        if (firstClick) {
+            // Chunks generated before the first click (only possible through getValue) are rebuilt around the safe zone
+            firstClick = false;
+            safeX = x;
+            safeY = y;
+            chunks.clear();
+        }
+        Chunk c = chunk(x, y);
+        int local = local(x, y);
+        if ((c.state[local] & Board.OPENED) != 0) {
+            return 0;
+        }
+        if (c.values[local] == Board.MINE) {
+            gameLost = true;
+            if (Metrics.ENABLED) {
+                Metrics.gamesLost.increment();
+            }
+            return 0;
+        }
+        int opened = open(c, local);
+        if (c.values[local] == 0) {
+            enqueue(x, y);
+            opened += cascade(CASCADE_BUDGET - 1);
+        }
+        return opened;
+    }
+
+    /**
+     * Continues a cascade left unfinished by an earlier call, up to CASCADE_BUDGET Cells
+     * @return number of Cells opened
+     */
+    public int continueCascade() {
+        return queueSize == 0 || gameLost ? 0 : cascade(CASCADE_BUDGET);
+    }
+
+    /**
+     * Returns boolean signifying if a cascade is unfinished
+     * @return true if continueCascade() would open more Cells
+     */
+    public boolean isCascading() {
+        return queueSize > 0;
+    }
+
+    /**
+     * Flags or unflags Cell depending on current state
+     * Does nothing if the game is already lost or the Cell is opened
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     */
+    public void flag(int x, int y) {
+        checkBounds(x, y);
+        if (gameLost) {
+            return;
+        }
+        firstClick = false;
+        Chunk c = chunk(x, y);
+        int local = local(x, y);
+        if ((c.state[local] & Board.OPENED) == 0) {
+            c.state[local] ^= Board.FLAGGED;
+            flagCount += (c.state[local] & Board.FLAGGED) != 0 ? 1 : -1;
+        }
+    }
+
+    /**
+     * Opens all surrounding cells to the queued empty ones, continues using a breadth first search until cells that
+     * are not empty are opened or the budget is spent
+     * @param budget number of Cells to open before stopping; may be overshot by the surroundings of one Cell
+     * @return number of Cells opened
+     */
+    private int cascade(int budget) {
+        int opened = 0;
+
+        // Repeats until there are no more Cells to check or the budget is spent
+        while (queueSize > 0 && opened < budget) {
+            long q = queue[queueHead];
+            queueHead = (queueHead + 1) & (queue.length - 1);
+            queueSize--;
+            int cX = (int) (q >>> 32);
+            int cY = (int) q;
+            for (int y = Math.max(cY - 1, 0); y <= Math.min(cY + 1, height - 1); y++) {
+                for (int x = Math.max(cX - 1, 0); x <= Math.min(cX + 1, width - 1); x++) {
+                    Chunk c = chunk(x, y);
+                    int local = local(x, y);
+                    if ((c.state[local] & Board.OPENED) == 0) {
+                        opened += open(c, local);
+                        if (c.values[local] == 0) {
+                            enqueue(x, y);
+                        }
+                    }
+                }
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordCascade(opened);
+        }
+        return opened;
+    }
+
+    /**
+     * Adds an opened empty Cell to the cascade frontier, growing the ring buffer when it is full
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     */
+    private void enqueue(int x, int y) {
+        if (queueSize == queue.length) {
+            // Unwraps the ring into the front of a buffer twice the size
+            long[] grown = new long[queue.length * 2];
+            int first = queue.length - queueHead;
+            System.arraycopy(queue, queueHead, grown, 0, first);
+            System.arraycopy(queue, 0, grown, first, queueHead);
+            queue = grown;
+            queueHead = 0;
+        }
+        queue[(queueHead + queueSize) & (queue.length - 1)] = pack(x, y);
+        queueSize++;
+    }
+
+    /**
+     * Marks a Cell opened, unflagging it first
+     * @param c chunk containing the Cell
+     * @param local index of Cell within the chunk
+     * @return 1, the number of Cells opened
+     */
+    private int open(Chunk c, int local) {
+        if ((c.state[local] & Board.FLAGGED) != 0) {
+            flagCount--;
+        }
+        c.state[local] = Board.OPENED;
+        openedCount++;
+        return 1;
+    }
+
+    /**
+     * Returns the chunk containing a Cell, generating it if this is the first time it is touched
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     * @return chunk containing the Cell
+     */
+    private Chunk chunk(int x, int y) {
+        int cX = x >>> CHUNK_BITS;
+        int cY = y >>> CHUNK_BITS;
+        Long key = pack(cX, cY);
+        Chunk c = chunks.get(key);
+        if (c == null) {
+            c = generateChunk(cX, cY);
+            chunks.put(key, c);
+        }
+        return c;
+    }
+
+    /**
+     * Builds the values of a chunk from the mines in it and in the one Cell wide ring around it
+     * @param cX chunk x-coordinate
+     * @param cY chunk y-coordinate
+     * @return newly generated chunk
+     */
+    private Chunk generateChunk(int cX, int cY) {
+        Chunk c = new Chunk();
+        int halo = CHUNK_SIZE + 2;
+        boolean[] mines = new boolean[halo * halo];
+        long baseX = ((long) cX << CHUNK_BITS) - 1;
+        long baseY = ((long) cY << CHUNK_BITS) - 1;
+        for (int j = 0; j < halo; j++) {
+            for (int i = 0; i < halo; i++) {
+                mines[j * halo + i] = isMine(baseX + i, baseY + j);
+            }
+        }
+        for (int j = 0; j < CHUNK_SIZE; j++) {
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                int h = (j + 1) * halo + i + 1;
+                if (mines[h]) {
+                    c.values[j * CHUNK_SIZE + i] = Board.MINE;
+                } else {
+                    int count = 0;
+                    for (int dy = -halo; dy <= halo; dy += halo) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            if (mines[h + dy + dx]) {
+                                count++;
+                            }
+                        }
+                    }
+                    c.values[j * CHUNK_SIZE + i] = (byte) count;
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Decides whether a Cell is a mine from the seed of its chunk and its position within the chunk
+     * @param x x-coordinate of Cell, may be outside the board
+     * @param y y-coordinate of Cell, may be outside the board
+     * @return true if Cell is a mine
+     */
+    private boolean isMine(long x, long y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        if (Math.abs(x - safeX) <= 1 && Math.abs(y - safeY) <= 1) {
+            return false;
+        }
+        long chunkSeed = mix(seed ^ mix(((x >>> CHUNK_BITS) << 32) | (y >>> CHUNK_BITS)));
+        long h = mix(chunkSeed + local((int) x, (int) y) * 0x9E3779B97F4A7C15L);
+        return (h >>> 11) < mineThreshold;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads every input bit across the whole output
+     * @param z value to mix
+     * @return mixed value
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Packs two non-negative ints into one long
+     * @param x high half
+     * @param y low half
+     * @return packed value
+     */
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | y;
+    }
+
+    /**
+     * Returns index of a Cell within its chunk
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     * @return local index
+     */
+    private static int local(int x, int y) {
+        return (y & CHUNK_MASK) << CHUNK_BITS | (x & CHUNK_MASK);
+    }
+
+    /**
+     * Throws an exception if a Cell is not on the board
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     */
+    private void checkBounds(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            throw new IndexOutOfBoundsException("Cell (" + x + ", " + y + ") is not on a " + width + "x" + height + " board");
+        }
+    }
+
+    /**
+     * Returns value of Cell, generating its chunk if needed
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     * @return value of Cell, -1 if mine, 0 - 8 for respective numbers
+     */
+    public int getValue(int x, int y) {
+        checkBounds(x, y);
+        return chunk(x, y).values[local(x, y)];
+    }
+
+    /**
+     * Returns boolean signifying if Cell is opened, without generating anything
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     * @return true if Cell is opened
+     */
+    public boolean isOpened(int x, int y) {
+        Chunk c = chunks.get(pack(x >>> CHUNK_BITS, y >>> CHUNK_BITS));
+        return c != null && (c.state[local(x, y)] & Board.OPENED) != 0;
+    }
+
+    /**
+     * Returns boolean signifying if Cell is flagged, without generating anything
+     * @param x x-coordinate of Cell
+     * @param y y-coordinate of Cell
+     * @return true if Cell is flagged
+     */
+    public boolean isFlagged(int x, int y) {
+        Chunk c = chunks.get(pack(x >>> CHUNK_BITS, y >>> CHUNK_BITS));
+        return c != null && (c.state[local(x, y)] & Board.FLAGGED) != 0;
+    }
+
+    /**
+     * Returns number of columns
+     * @return number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns number of rows
+     * @return number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns number of Cells opened so far
+     * @return opened Cell count
+     */
+    public long getOpenedCount() {
+        return openedCount;
+    }
+
+    /**
+     * Returns number of flags currently placed
+     * @return flag count
+     */
+    public long getFlagCount() {
+        return flagCount;
+    }
+
+    /**
+     * Returns number of chunks generated and held in memory
+     * @return chunk count
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Returns boolean signifying if game is lost
+     * @return true if game is lost
+     */
+    public boolean isLost() {
+        return gameLost;
+    }
+}
@@ -0,0 +1,254 @@
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+/**
+ * Class Metrics
+ * Process-wide counters and latency histograms fed by every Board
+ * Enabled with -Dminesweeper.metrics=true, in which case they are registered with JMX as
+ * "minesweeper:type=Metrics" and, if -Dminesweeper.metrics.dumpSeconds=N is set, printed every N seconds
+ * When disabled, ENABLED is a constant false and the JIT removes every recording call site
+ */
+public final class Metrics
+{
+    public static final boolean ENABLED = Boolean.getBoolean("minesweeper.metrics");
+
+    // Counters, striped so that many games on many threads do not contend
+    static final LongAdder gamesStarted = new LongAdder();
+    static final LongAdder gamesWon = new LongAdder();
+    static final LongAdder gamesLost = new LongAdder();
+    static final LongAdder reveals = new LongAdder();
+    static final LongAdder cellsOpened = new LongAdder();
+    static final LongAdder cascades = new LongAdder();
+    static final LongAdder flagToggles = new LongAdder();
+    static final LongAdder firstClickRelocations = new LongAdder();
+
+    // Distributions
+    static final Histogram generateNanos = new Histogram();
+    static final Histogram revealNanos = new Histogram();
+    static final Histogram cascadeSize = new Histogram();
+
+    // Reveal count and time at the previous dump, for reveals per second
+    private static long lastReveals = 0;
+    private static long lastDumpNanos = System.nanoTime();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName("minesweeper:type=Metrics"));
+            } catch (Exception e) {
+                // Metrics are still recorded and dumped without JMX
+                e.printStackTrace();
+            }
+            long period = Long.getLong("minesweeper.metrics.dumpSeconds", 0);
+            if (period > 0) {
+                ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread th = new Thread(r, "minesweeper-metrics");
+                    th.setDaemon(true);
+                    return th;
+                });
+                dumper.scheduleAtFixedRate(() -> System.err.print(dump()), period, period, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Records a newly generated board, which may sit in a BoardPool before a game is played on it
+     * @param nanos time taken to place mines and count surroundings
+     */
+    static void recordGenerate(long nanos) {
+        generateNanos.record(nanos);
+    }
+
+    /**
+     * Records a reveal action
+     * @param nanos time taken, including any cascade
+     * @param opened number of Cells opened
+     */
+    static void recordReveal(long nanos, int opened) {
+        reveals.increment();
+        cellsOpened.add(opened);
+        revealNanos.record(nanos);
+    }
+
+    /**
+     * Records a cascade
+     * @param size number of Cells opened by the cascade
+     */
+    static void recordCascade(int size) {
+        cascades.increment();
+        cascadeSize.record(size);
+    }
+
+    /**
+     * Builds a human readable report of every metric
+     * @return multi-line report
+     */
+    public static synchronized String dump() {
+        long now = System.nanoTime();
+        long r = reveals.sum();
+        double perSecond = (r - lastReveals) * 1e9 / Math.max(1, now - lastDumpNanos);
+        lastReveals = r;
+        lastDumpNanos = now;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "games started=%d won=%d lost=%d firstClickRelocations=%d%n",
+                gamesStarted.sum(), gamesWon.sum(), gamesLost.sum(), firstClickRelocations.sum()));
+        sb.append(String.format(Locale.ROOT, "reveals=%d (%.1f/s) cellsOpened=%d cascades=%d flagToggles=%d%n",
+                r, perSecond, cellsOpened.sum(), cascades.sum(), flagToggles.sum()));
+        sb.append("generateNanos ").append(generateNanos).append('\n');
+        sb.append("revealNanos   ").append(revealNanos).append('\n');
+        sb.append("cascadeSize   ").append(cascadeSize).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Class Histogram
+     * Log-linear histogram in the style of HdrHistogram: values below SUB_BUCKETS get a bucket each, and each
+     * higher power of two is split into SUB_BUCKETS / 2 equal buckets, so every recorded value is kept to within
+     * about 6%
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+        // Buckets below SUB_BUCKETS, then SUB_BUCKETS / 2 for each shift up to that of the highest long
+        static final int BUCKET_COUNT = (64 - SUB_BITS) * (SUB_BUCKETS / 2) + SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+
+        /**
+         * Records a value
+         * @param value non-negative value, negative values are recorded as 0
+         */
+        void record(long value) {
+            value = Math.max(0, value);
+            buckets.incrementAndGet(bucketOf(value));
+            count.increment();
+            sum.add(value);
+        }
+
+        /**
+         * Finds the bucket for a value: values below SUB_BUCKETS get one bucket each,
+         * larger values are bucketed by their highest bit and the SUB_BITS - 1 bits below it
+         * @param value non-negative value
+         * @return bucket index
+         */
+        static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+            return shift * (SUB_BUCKETS / 2) + (int) (value >>> shift);
+        }
+
+        /**
+         * Returns the largest value that falls in a bucket
+         * @param bucket bucket index
+         * @return upper bound of bucket
+         */
+        static long upperBoundOf(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = (bucket - SUB_BUCKETS) / (SUB_BUCKETS / 2) + 1;
+            long sub = (bucket - SUB_BUCKETS) % (SUB_BUCKETS / 2) + SUB_BUCKETS / 2;
+            return ((sub + 1) << shift) - 1;
+        }
+
+        /**
+         * Returns number of recorded values
+         * @return count
+         */
+        long count() {
+            return count.sum();
+        }
+
+        /**
+         * Returns mean of recorded values
+         * @return mean, 0 if empty
+         */
+        double mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        /**
+         * Returns an upper bound on the given percentile of recorded values
+         * @param percentile percentile between 0 and 100
+         * @return value at percentile, 0 if empty
+         */
+        long percentile(double percentile) {
+            long n = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                n += buckets.get(i);
+            }
+            long target = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= Math.max(1, target)) {
+                    return upperBoundOf(i);
+                }
+            }
+            return 0;
+        }
+
+        public String toString() {
+            return String.format(Locale.ROOT, "count=%d mean=%.1f p50=%d p90=%d p99=%d max=%d",
+                    count(), mean(), percentile(50), percentile(90), percentile(99), percentile(100));
+        }
+    }
+
+    /**
+     * Interface MetricsMXBean
+     * Attributes shown in JMX consoles such as jconsole
+     */
+    public interface MetricsMXBean {
+        long getGamesStarted();
+        long getGamesWon();
+        long getGamesLost();
+        long getFirstClickRelocations();
+        long getReveals();
+        long getCellsOpened();
+        long getCascades();
+        long getFlagToggles();
+        double getGenerateNanosMean();
+        long getGenerateNanosP99();
+        double getRevealNanosMean();
+        long getRevealNanosP99();
+        double getCascadeSizeMean();
+        long getCascadeSizeMax();
+        String getReport();
+    }
+
+    /**
+     * Class Bean
+     * Exposes the metrics through JMX
+     */
+    static final class Bean implements MetricsMXBean {
+        public long getGamesStarted() { return gamesStarted.sum(); }
+        public long getGamesWon() { return gamesWon.sum(); }
+        public long getGamesLost() { return gamesLost.sum(); }
+        public long getFirstClickRelocations() { return firstClickRelocations.sum(); }
+        public long getReveals() { return reveals.sum(); }
+        public long getCellsOpened() { return cellsOpened.sum(); }
+        public long getCascades() { return cascades.sum(); }
+        public long getFlagToggles() { return flagToggles.sum(); }
+        public double getGenerateNanosMean() { return generateNanos.mean(); }
+        public long getGenerateNanosP99() { return generateNanos.percentile(99); }
+        public double getRevealNanosMean() { return revealNanos.mean(); }
+        public long getRevealNanosP99() { return revealNanos.percentile(99); }
+        public double getCascadeSizeMean() { return cascadeSize.mean(); }
+        public long getCascadeSizeMax() { return cascadeSize.percentile(100); }
+        public String getReport() { return dump(); }
+    }
+}
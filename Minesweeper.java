@@ -1,975 +1,845 @@
-import javax.swing.*;
-import javax.swing.Timer;
-
-import java.awt.*;
-import java.awt.event.*;
-import java.awt.image.BufferedImage;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.*;
-
-/**
- * Class Minesweeper
- * @author Tarang Lunawat
- * Opens a JFrame in which a game of Minesweeper can be played
- */
-public class Minesweeper
-{
-    // Game specification constants
-    private final int boardDimensions = 10;
-    private final int mineNum = 10;
-
-    // Variables to keep track of how the game progresses
-    private Cell[][] board;
-    private Cell[] mines = new Cell[mineNum];
-    private int flags = mineNum;
-    private ArrayList<Cell> wronglyFlagged = new ArrayList<>();
-    private boolean gameWon = false;
-    private boolean gameLost = false;
-    private boolean firstClick = true;
-    private String playerName;
-
-    // JFrame & associated graphics objects
-    private CardLayout shuffler;
-    private JFrame frame;
-    private JPanel cards;
-    private JPanel welcomeS;
-    private JPanel gameS;
-    private JPanel endS;
-    private JLabel winLose;
-    private JButton goToEndScreen;
-    private JLabel gameStats;
-    private JTextField playerNameInput;
-
-    // Timing variables
-    private int seconds = 0;
-    private Timer t;
-
-    /**
-     * Main method, initializes and opens the game
-     */
-    public static void main (String[] args)
-    {
-        Minesweeper m = new Minesweeper();
-        m.openGame();
-    }
-    
-    /**
-     * Constructor
-     * Loads images for game, initializes JFrame and layouts
-     */
-    public Minesweeper() {
-        // Loads all image icons displayed by game cells
-        Cell.loadImages();
-        
-        // Game window
-        frame = new JFrame();
-        frame.setPreferredSize(new Dimension(800, 800));
-        frame.setTitle("Minesweeper");
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        
-        // CardLayout to switch through different screens of the game
-        shuffler = new CardLayout();
-        cards = new JPanel(shuffler);
-        setUpCards();
-        Container pane = frame.getContentPane();
-        pane.add(cards, BorderLayout.CENTER);
-        
-        frame.pack();
-    }
-    
-    /**
-     * Sets up all screens of the game (welcomeS, gameS, endS) by creating and adding respective elements
-     */
-    public void setUpCards() {
-        // Welcome screen
-        welcomeS = new JPanel();
-        welcomeS.setLayout(null);
-
-        JPanel wSDrawings = new NameJPanel();
-        wSDrawings.setBounds(0, 0, 800, 100);
-        welcomeS.add(wSDrawings);
-
-        JLabel enterName = new JLabel("Enter name: ");
-        enterName.setBounds(285, 120, 100, 30);
-        welcomeS.add(enterName);
-
-        playerNameInput = new JTextField("Anonymous");
-        playerNameInput.setBounds(390, 120, 100, 30);
-        welcomeS.add(playerNameInput);
-
-        JLabel toPlay = new JLabel("To play:");
-        toPlay.setBounds(285, 150, 100, 50);
-        JLabel rightClickInstructions = new JLabel("Right click or ctrl+click to flag");
-        rightClickInstructions.setBounds(300, 170, 200, 50);
-        JLabel revealInstructions = new JLabel("Click to open");
-        revealInstructions.setBounds(300, 190, 100, 50);
-        welcomeS.add(toPlay);
-        welcomeS.add(rightClickInstructions);
-        welcomeS.add(revealInstructions);
-        
-        JLabel gameDescription = new JLabel("The objective of the game is to open all squares");
-        JLabel gD2 = new JLabel("which do not contain a mine. Numbers are the ");
-        JLabel gD3 = new JLabel("amount of surrounding squares that contain a");
-        JLabel gD4 = new JLabel("mine. The game is won by opening all non-mine");
-        JLabel gD5 = new JLabel("squares and lost if a mine is opened.");
-        gameDescription.setBounds(285, 250, 350, 50);
-        gD2.setBounds(285, 270, 350, 50);
-        gD3.setBounds(285, 290, 350, 50);
-        gD4.setBounds(285, 310, 350, 50);
-        gD5.setBounds(285, 330, 350, 50);
-        welcomeS.add(gameDescription);
-        welcomeS.add(gD2);
-        welcomeS.add(gD3);
-        welcomeS.add(gD4);
-        welcomeS.add(gD5);
-        
-        JButton go = new JButton("Go!");
-        go.setBounds(370, 390, 60, 30);
-        ActionListener goListener = new GoListener();
-        go.addActionListener(goListener);
-        welcomeS.add(go);
-
-        cards.add(welcomeS, "Welcome Screen");
-        
-        // Game screen
-        gameS = new JPanel();
-        gameS.setLayout(null);
-
-        JPanel gSDrawings = new NameJPanel();
-        gSDrawings.setBounds(0, 0, 800, 100);
-        gameS.add(gSDrawings);
-
-        winLose = new JLabel();
-        winLose.setBounds(350, 350, 500, 500);
-        winLose.setFont(new Font(winLose.getFont().getName(), Font.PLAIN, 14));
-        gameS.add(winLose);
-
-        gameStats = new JLabel(getGameStatsString());
-        gameStats.setBounds(250, 120, 400, 40);
-        gameS.add(gameStats);
-
-        goToEndScreen = new JButton("Next");
-        goToEndScreen.setVisible(false);
-        goToEndScreen.setBounds(370, 650, 60, 30);
-        ActionListener nextListener = new NextListener();
-        goToEndScreen.addActionListener(nextListener);
-        gameS.add(goToEndScreen);
-
-        cards.add(gameS, "Game Screen");
-
-        // End screen
-        endS = new JPanel();
-        endS.setLayout(null);
-        JPanel eSDrawings = new NameJPanel();
-        eSDrawings.setBounds(0, 0, 800, 100);
-        endS.add(eSDrawings);
-        cards.add(endS, "End Screen");
-    }
-
-    /**
-     * Inner class NameJPanel
-     * Displays "Minesweeper" at top of each screen
-     */
-    class NameJPanel extends JPanel {
-        public void paintComponent(Graphics g) {
-            Graphics2D g2 = (Graphics2D) g;
-            g2.setFont(new Font(g2.getFont().getFontName(), Font.PLAIN, 30));
-            g2.drawString("Minesweeper", 307, 40);
-        }
-    }
-
-    /**
-     * Interface method, shows the welcome screen
-     */
-    public void openGame() {
-        shuffler.show(cards, "Welcome Screen");
-        frame.setVisible(true);
-    }
-
-    /**
-     * Inner class GoListener
-     * Records player name and advances game
-     */
-    class GoListener implements ActionListener {
-        public void actionPerformed(ActionEvent event) {
-            playerName = playerNameInput.getText();
-            playGame();
-        }
-    }
-
-    /**
-     * Interface method
-     * @return true, signals game has began
-     * Generates and draws game board, initializes timer to keep track of gameplay time
-     */
-    public boolean playGame() {
-        generateBoard(false);
-        TimeListener listener = new TimeListener();
-        t = new Timer(1000, listener);
-        t.start();
-        shuffler.show(cards, "Game Screen");
-        return true;
-    }
-
-    /**
-     * Randomly selects positions for mines and increments surrounds to build board
-     * Calls method to draw board on JFrame
-     * @param alreadyDrawn true if board has already been added to the JFrame
-     */
-    public void generateBoard(boolean alreadyDrawn) {
-        if (alreadyDrawn)
-        {
-            for (Cell[] cRow : board)
-            {
-                for (Cell c : cRow)
-                {
-                    c.setVisible(false);
-                }
-            }
-        }
-        board = new Cell[boardDimensions][boardDimensions];
-        
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board[1].length; j++) {
-                board[i][j] = new Cell(j, i, 0, this);
-            }
-        }
-        
-        // Randomly selects mines and increments surroundings
-        for (int i = 0; i < mineNum; i++) {
-            int mX = (int) (Math.random() * boardDimensions);
-            int mY = (int) (Math.random() * boardDimensions);
-            if (board[mY][mX].getValue() != -1) {
-                board[mY][mX].setValue(-1);
-                mines[i] = board[mY][mX];
-                incrementSurroundings(mY, mX);
-            } else {
-                // If selected coordinates is already a mine, selects another set of random coordinates
-                i--;
-            }
-        }
-        // Adds cells to JFrame if not already done
-        drawBoard();
-    }
-
-    /**
-     * Adds all cells to game JFrame
-     */
-    private void drawBoard() {
-        for (Cell[] row : board) {
-            for (Cell c : row) {
-                c.setVisible(true);
-                gameS.add(c);
-            }
-        }
-    }
-
-    /**
-     * Increments all surrounding cell values of mine by 1
-     * @param mY y position on board of mine
-     * @param mX x position on board of mine
-     */
-    private void incrementSurroundings(int mY, int mX) {
-        if (mX != 0 && mX != boardDimensions - 1) {
-            // x is somewhere normal
-            if (mY != 0 && mY != boardDimensions - 1) {
-                // y is somewhere normal
-                board[mY][mX - 1].incrementValueIfNotMine();
-                board[mY][mX + 1].incrementValueIfNotMine();
-                board[mY - 1][mX - 1].incrementValueIfNotMine();
-                board[mY - 1][mX + 1].incrementValueIfNotMine();
-                board[mY + 1][mX - 1].incrementValueIfNotMine();
-                board[mY + 1][mX + 1].incrementValueIfNotMine();
-                board[mY - 1][mX].incrementValueIfNotMine();
-                board[mY + 1][mX].incrementValueIfNotMine();
-            } else if (mY == 0) {
-                // top row
-                board[mY][mX - 1].incrementValueIfNotMine();
-                board[mY][mX + 1].incrementValueIfNotMine();
-                board[mY + 1][mX - 1].incrementValueIfNotMine();
-                board[mY + 1][mX + 1].incrementValueIfNotMine();
-                board[mY + 1][mX].incrementValueIfNotMine();
-            } else {
-                // bottom row
-                board[mY][mX - 1].incrementValueIfNotMine();
-                board[mY][mX + 1].incrementValueIfNotMine();
-                board[mY - 1][mX - 1].incrementValueIfNotMine();
-                board[mY - 1][mX + 1].incrementValueIfNotMine();
-                board[mY - 1][mX].incrementValueIfNotMine();
-            }
-        } else if (mX == 0) {
-            // left column
-            if (mY != 0 && mY != boardDimensions - 1) {
-                // y is somewhere normal
-                board[mY][mX + 1].incrementValueIfNotMine();
-                board[mY - 1][mX + 1].incrementValueIfNotMine();
-                board[mY + 1][mX + 1].incrementValueIfNotMine();
-                board[mY - 1][mX].incrementValueIfNotMine();
-                board[mY + 1][mX].incrementValueIfNotMine();
-            } else if (mY == 0) {
-                // top row
-                board[mY][mX + 1].incrementValueIfNotMine();
-                board[mY + 1][mX + 1].incrementValueIfNotMine();
-                board[mY + 1][mX].incrementValueIfNotMine();
-            } else {
-                // bottom row
-                board[mY][mX + 1].incrementValueIfNotMine();
-                board[mY - 1][mX + 1].incrementValueIfNotMine();
-                board[mY - 1][mX].incrementValueIfNotMine();
-            }
-        } else {
-            // right column
-            if (mY != 0 && mY != boardDimensions - 1) {
-                // y is somewhere normal
-                board[mY][mX - 1].incrementValueIfNotMine();
-                board[mY - 1][mX - 1].incrementValueIfNotMine();
-                board[mY + 1][mX - 1].incrementValueIfNotMine();
-                board[mY - 1][mX].incrementValueIfNotMine();
-                board[mY + 1][mX].incrementValueIfNotMine();
-            } else if (mY == 0) {
-                // top row
-                board[mY][mX - 1].incrementValueIfNotMine();
-                board[mY + 1][mX - 1].incrementValueIfNotMine();
-                board[mY + 1][mX].incrementValueIfNotMine();
-            } else {
-                // bottom row
-                board[mY][mX - 1].incrementValueIfNotMine();
-                board[mY - 1][mX - 1].incrementValueIfNotMine();
-                board[mY - 1][mX].incrementValueIfNotMine();
-            }
-        }
-
-    }
-
-    /**
-     * Inner class NextListener
-     * Advances game to ending screen
-     */
-    class NextListener implements ActionListener {
-        public void actionPerformed(ActionEvent event) {
-            endGame();
-        }
-    }
-
-    /**
-     * Inner class TimeListener
-     * Increments seconds counter & updates corresponding JLabel
-     */
-    class TimeListener implements ActionListener {
-        public void actionPerformed(ActionEvent e) {
-            seconds++;
-            gameStats.setText(getGameStatsString());
-        }
-    }
-
-    /**
-     * Interface method
-     * Updates stats JLabels and displays ending screen
-     */
-    public void endGame() {
-        JLabel eSMessage = new JLabel();
-        eSMessage.setBounds(300, 120, 400, 40);
-        if (gameLost) {
-            eSMessage.setText("Better luck next time, " + playerName);
-        } else {
-            eSMessage.setText("Congrats " + playerName + ", you won!");
-        }
-        endS.add(eSMessage);
-
-        JLabel stats = new JLabel("Your stats: ");
-        stats.setBounds(300, 150, 400, 40);
-        endS.add(stats);
-
-        JLabel wrongFlags = new JLabel("Wrong flags: " + wronglyFlagged.size() + " flag(s)");
-        wrongFlags.setBounds(310, 170, 400, 40);
-        endS.add(wrongFlags);
-
-        JLabel time = new JLabel("Time taken: " + seconds + " seconds");
-        time.setBounds(310, 190, 400, 40);
-        endS.add(time);
-
-        JLabel score = new JLabel("Score: " + getScore().substring(playerName.length()));
-        score.setBounds(310, 210, 400, 40);
-        endS.add(score);
-
-        shuffler.show(cards, "End Screen");
-    }
-
-    /**
-     * Interface method
-     * @return String containing playerName and score, 0 if game lost
-     */
-    public String getScore() {
-        if (!isWon()) {
-            return playerName + " 0";
-        } else {
-            return playerName + " " + (seconds + 10 * wronglyFlagged.size());
-        }
-    }
-
-    /**
-     * Gets full updated string to be shown for game stats
-     * @return full displayed game stats string
-     */
-    public String getGameStatsString() {
-        return "Flags remaining: " + flags + "     Seconds elasped: " + seconds;
-    }
-
-    /**
-     * Returns player name
-     * @return player name
-     */
-    public String returnUsername() {
-        return playerName;
-    }
-
-    /**
-     * Returns boolean signifying if this is player's first click
-     * @return true if first click
-     */
-    public boolean isFirstClick()
-    {
-        return firstClick;
-    }
-    
-    /**
-     * Sets boolean firstClick to false
-     */
-    public void firstClickOccured()
-    {
-        firstClick = false;
-    }
-    
-    /**
-     * Returns boolean signifying if game is lost
-     * @return true if game is lost
-     */
-    public boolean isLost() {
-        return gameLost;
-    }
-
-    /**
-     * Returns boolean signifying if game is won
-     * @return true if game is won
-     */
-    public boolean isWon() {
-        return gameWon;
-    }
-
-    /**
-     * Adds Cell to wronglyFlagged ArrayList
-     * @param c Cell to add
-     */
-    public void addToWronglyFlagged(Cell c) {
-        wronglyFlagged.add(c);
-    }
-
-    /**
-     * Removes Cell from wronglyFlagged ArrayList
-     * @param c Cell to remove
-     */
-    public void removeFromWronglyFlagged(Cell c) {
-        wronglyFlagged.remove(c);
-
-    }
-
-    /**
-     * Increments flag count and updates respective JLabel
-     */
-    public void incrementFlagCount() {
-        flags++;
-        gameStats.setText(getGameStatsString());
-    }
-
-    /**
-     * Decrements flag count and updates respective JLabel
-     */
-    public void decrementFlagCount() {
-        flags--;
-        gameStats.setText(getGameStatsString());
-    }
-
-    /**
-     * Regenerates board so that the first click cannot be a mine, then reveals clicked Cell
-     * @param bX x-coordinate of clicked Cell in board double array
-     * @param bY y-ccordinate of clicked Cell in board double array
-     */
-    public void firstClickMine(int bX, int bY)
-    {
-        while(board[bY][bX].getValue() == -1)
-        {
-            generateBoard(true);
-        }
-        board[bY][bX].reveal(true);
-    }
-    
-    /**
-     * Called when game is lost
-     * Stops timer, reveals unflagged mines and wrong flags
-     * Sets JLabel text to "Game Lost" and displays "Next" JButton
-     */
-    public void mineClicked() {
-        t.stop();
-        gameLost = true;
-        winLose.setText("Game Lost!");
-        goToEndScreen.setVisible(true);
-        for (Cell c : mines) {
-            if (!c.isFlagged()) {
-                c.revealMine();
-            }
-        }
-        for (Cell c : wronglyFlagged) {
-            c.showCross();
-        }
-    }
-    
-    /**
-     * Checks to see if the game is won
-     * If so, stops timer, sets JLabel text to "Game Won" and displays "Next" KButton
-     */
-    public void checkEndConditions() {
-        // game ends when: everything that's not a mine is opened
-        boolean conditionsMet = true;
-        for (Cell[] row : board) {
-            for (Cell c : row) {
-                if (!c.isOpened() && c.getValue() != -1) {
-                    conditionsMet = false;
-                }
-            }
-        }
-        if (conditionsMet) {
-            t.stop();
-            winLose.setText("Game Won!");
-            gameWon = true;
-            goToEndScreen.setVisible(true);
-        }
-    }
-
-    /**
-     * Opens all surrounding cells to the one passed in, recurses using a breadth first search until cells that are not empty are opened
-     * @param x x-coordinate of Cell to cascade around
-     * @param y y-coordinate of Cell to cascade around
-     */
-    public void cascade(int x, int y) {
-        // Queue to keep track of all cells for which to check and open surroundings
-        Queue<Cell> toCascade = new LinkedList<>();
-        toCascade.add(board[y][x]);
-        
-        // Repeats until there are no more Cells to check
-        while (toCascade.size() != 0) {
-            Cell cascading = toCascade.remove();
-            int cX = cascading.getMyX();
-            int cY = cascading.getMyY();
-            Cell[] surroundings;
-            // Adds Cells to check to an Array depending on where the main Cell is
-            if (cX != 0 && cX != boardDimensions - 1) {
-                // x is somewhere normal
-                if (cY != 0 && cY != boardDimensions - 1) {
-                    // y is somewhere normal
-                    surroundings = new Cell[8];
-                    surroundings[0] = board[cY][cX - 1];
-                    surroundings[1] = board[cY][cX + 1];
-                    surroundings[2] = board[cY - 1][cX - 1];
-                    surroundings[3] = board[cY - 1][cX + 1];
-                    surroundings[4] = board[cY + 1][cX - 1];
-                    surroundings[5] = board[cY + 1][cX + 1];
-                    surroundings[6] = board[cY - 1][cX];
-                    surroundings[7] = board[cY + 1][cX];
-                } else if (cY == 0) {
-                    // top row
-                    surroundings = new Cell[5];
-                    surroundings[0] = board[cY][cX - 1];
-                    surroundings[1] = board[cY][cX + 1];
-                    surroundings[2] = board[cY + 1][cX - 1];
-                    surroundings[3] = board[cY + 1][cX + 1];
-                    surroundings[4] = board[cY + 1][cX];
-                } else {
-                    // bottom row
-                    surroundings = new Cell[5];
-                    surroundings[0] = board[cY][cX - 1];
-                    surroundings[1] = board[cY][cX + 1];
-                    surroundings[2] = board[cY - 1][cX - 1];
-                    surroundings[3] = board[cY - 1][cX + 1];
-                    surroundings[4] = board[cY - 1][cX];
-                }
-            } else if (cX == 0) {
-                // left column
-                if (cY != 0 && cY != boardDimensions - 1) {
-                    // y is somewhere normal
-                    surroundings = new Cell[5];
-                    surroundings[0] = board[cY][cX + 1];
-                    surroundings[1] = board[cY - 1][cX + 1];
-                    surroundings[2] = board[cY + 1][cX + 1];
-                    surroundings[3] = board[cY - 1][cX];
-                    surroundings[4] = board[cY + 1][cX];
-                } else if (cY == 0) {
-                    // top row
-                    surroundings = new Cell[3];
-                    surroundings[0] = board[cY][cX + 1];
-                    surroundings[1] = board[cY + 1][cX + 1];
-                    surroundings[2] = board[cY + 1][cX];
-                } else {
-                    // bottom row
-                    surroundings = new Cell[3];
-                    surroundings[0] = board[cY][cX + 1];
-                    surroundings[1] = board[cY - 1][cX + 1];
-                    surroundings[2] = board[cY - 1][cX];
-                }
-            } else {
-                // right column
-                if (cY != 0 && cY != boardDimensions - 1) {
-                    // y is somewhere normal
-                    surroundings = new Cell[5];
-                    surroundings[0] = board[cY][cX - 1];
-                    surroundings[1] = board[cY - 1][cX - 1];
-                    surroundings[2] = board[cY + 1][cX - 1];
-                    surroundings[3] = board[cY - 1][cX];
-                    surroundings[4] = board[cY + 1][cX];
-                } else if (cY == 0) {
-                    // top row
-                    surroundings = new Cell[3];
-                    surroundings[0] = board[cY][cX - 1];
-                    surroundings[1] = board[cY + 1][cX - 1];
-                    surroundings[2] = board[cY + 1][cX];
-                } else {
-                    // bottom row
-                    surroundings = new Cell[3];
-                    surroundings[0] = board[cY][cX - 1];
-                    surroundings[1] = board[cY - 1][cX - 1];
-                    surroundings[2] = board[cY - 1][cX];
-                }
-            }
-            // Checks all surrounding Cells and opens them if they are not opened or are wrongly flagged
-            for (Cell c : surroundings) {
-                if (!c.isOpened() || wronglyFlagged.contains(c)) {
-                    removeFromWronglyFlagged(c);
-                    c.reveal(false);
-                    if (c.getValue() == 0) {
-                        toCascade.add(c);
-                    }
-                }
-            }
-        }
-    }
-}
-
-/**
- * Private class Cell
- * @author Tarang
- * Represents a single square of the Minesweeper board
- */
-class Cell extends JButton {
-    // Final variables representing graphics position and icons
-    public static final int CELL_SIZE = 40;
-    public static final int BOARD_X_OFFSET = 190;
-    public static final int BOARD_Y_OFFSET = 175;
-    private static ImageIcon[] images; // -1 to 8 corresponds to value, 9 is flag, 10 is unopened, 11 is wrongly flagged cross
-
-    // x and y positions in the board double array
-    private int boardX;
-    private int boardY;
-    
-    // variables monitoring status of Cell
-    private int value; // -1 = mine, 0 to 8 represents actual numerical value    
-    private boolean isOpened;
-    private boolean isFlagged;
-    
-    // Reference to Minesweeper instance to which the Cell belongs
-    private Minesweeper gameRef;
-    
-    /**
-     * Constructor, sets Icon to unopened, adds action listeners, and intializes variables
-     * @param x x-coordinate of Cell in board double array
-     * @param y y-coordinate of Cell in board double array
-     * @param value represents what the Cell should be when revealed
-     * @param ref reference to the instance of Minesweeper to which the Cell belongs
-     */
-    public Cell(int x, int y, int value, Minesweeper ref) {
-        // sets icon to unopened
-        super(images[10]);
-        
-        // intializes values
-        this.value = value;
-        this.boardX = x;
-        this.boardY = y;
-        gameRef = ref;
-        isOpened = false;
-        isFlagged = false;
-        
-        // sets size
-        this.setBounds(BOARD_X_OFFSET + x * CELL_SIZE, BOARD_Y_OFFSET + y * CELL_SIZE, CELL_SIZE, CELL_SIZE);
-
-        // adds action listeners
-        this.addActionListener(new CellListener());
-        this.addMouseListener(new RightClickCellListener());
-    }
-
-    /**
-     * Static method, fetches icon images from Wikimedia Commons URLs and creates one for wrong flags
-     */
-    public static void loadImages() {
-        images = new ImageIcon[12];
-        try {
-            images[0] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/8/80/Minesweeper_0.svg/800px-Minesweeper_0.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[1] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/c/ca/Minesweeper_1.svg/1200px-Minesweeper_1.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[2] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/4/44/Minesweeper_2.svg/1200px-Minesweeper_2.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[3] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/0/08/Minesweeper_3.svg/1200px-Minesweeper_3.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[4] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/4/4f/Minesweeper_4.svg/1200px-Minesweeper_4.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[5] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/4/46/Minesweeper_5.svg/1200px-Minesweeper_5.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[6] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/c/cc/Minesweeper_6.svg/1200px-Minesweeper_6.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[7] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/5/56/Minesweeper_7.svg/1200px-Minesweeper_7.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[8] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/0/0d/Minesweeper_8.svg/1200px-Minesweeper_8.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[9] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/8/83/Minesweeper_flag.svg/1200px-Minesweeper_flag.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-            images[10] = new ImageIcon(new ImageIcon(new URL(
-                    "https://upload.wikimedia.org/wikipedia/commons/thumb/c/c7/Minesweeper_unopened_square.svg/800px-Minesweeper_unopened_square.svg.png"))
-                            .getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
-        } catch (MalformedURLException e) {
-            // This should not happen unless you don't have internet connection - then the images won't load
-            e.printStackTrace();
-        }
-        BufferedImage wrongFlag = new BufferedImage(CELL_SIZE, CELL_SIZE, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = wrongFlag.createGraphics();
-        graphics.setPaint(new Color(0, 51, 61));
-        graphics.fillRect(0, 0, CELL_SIZE, CELL_SIZE);
-        graphics.setPaint(new Color(252, 3, 3));
-        graphics.drawLine(0, 0, CELL_SIZE, CELL_SIZE);
-        graphics.drawLine(0, CELL_SIZE, CELL_SIZE, 0);
-        images[11] = new ImageIcon(wrongFlag);
-    }
-
-    /**
-     * Reveals icon of the Cell
-     * Checks if game is lost or won
-     * @param toCascade true if first call and should cascade around, false if called from a recursive cascading function
-     */
-    public void reveal(boolean toCascade) {
-        // Does nothing if the game is already lost or won
-        if (!gameRef.isLost() && !gameRef.isWon()) {
-            if (this.value != -1) {
-                // If not a mine
-                // If not already false, flip first click boolean
-                if (gameRef.isFirstClick())
-                {
-                    gameRef.firstClickOccured();
-                }
-                if (isFlagged) {
-                    // Unflag
-                    flag();
-                }
-                isOpened = true;
-                this.setIcon(images[value]);
-                // Cascade if empty and not a recursive call
-                if (this.value == 0 && toCascade) {
-                    gameRef.cascade(this.boardX, this.boardY);
-                }
-                // Check if the game is won
-                gameRef.checkEndConditions();
-            } else {
-                // Mine is clicked
-                if (gameRef.isFirstClick())
-                {
-                    // If this is the first click, flip first click boolean and reshuffle board
-                    gameRef.firstClickOccured();
-                    gameRef.firstClickMine(boardX, boardY);
-                } else {
-                    // If not the first click, mine has been hit
-                    gameRef.mineClicked();
-                }
-            }
-        }
-    }
-
-    /**
-     * Flags or unflags Cell depending on current state
-     */
-    public void flag() {
-        // Does nothing if game is already lost or won
-        if (!gameRef.isLost() && !gameRef.isWon()) {
-            // If not already false, flip first click boolean
-            if (gameRef.isFirstClick())
-            {
-                gameRef.firstClickOccured();
-            }
-            if (this.getIcon().equals(images[10])) {
-                // If unopened, flag
-                this.setIcon(images[9]);
-                isFlagged = true;
-                if (this.value != -1) {
-                    // If not a mine, add to wronglyFlagged ArrayList
-                    gameRef.addToWronglyFlagged(this);
-                }
-                // Update game stats
-                gameRef.decrementFlagCount();
-            } else if (this.getIcon().equals(images[9])) {
-                // If flagged, unflag
-                this.setIcon(images[10]);
-                isFlagged = false;
-                // Remove from wronglyFlagged ArrayList (if present)
-                gameRef.removeFromWronglyFlagged(this);
-                // Update game stats
-                gameRef.incrementFlagCount();
-            }
-        }
-    }
-    
-    /*
-     * Reveals all remaining mines after the game is lost
-     * Creates a new, randomly colored icon for each mine
-     */
-    public void revealMine() {
-        // Create image
-        BufferedImage openMine = new BufferedImage(CELL_SIZE, CELL_SIZE, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = openMine.createGraphics();
-        
-        // Select color and draw square and circle
-        Color random = new Color((int) (Math.random() * 255), (int) (Math.random() * 255), (int) (Math.random() * 255));
-        graphics.setPaint(random.brighter());
-        graphics.fillRect(0, 0, openMine.getWidth(), openMine.getHeight());
-        graphics.setPaint(random.darker());
-        graphics.fillOval(0 + CELL_SIZE / 4, 0 + CELL_SIZE / 4, CELL_SIZE / 2, CELL_SIZE / 2);
-        
-        // Set as icon
-        this.setIcon(new ImageIcon(openMine));
-    }
-    
-    /**
-     * Shows icon signifying that Cell was wrongly flagged
-     */
-    public void showCross() {
-        this.setIcon(images[11]);
-    }
-    
-    /**
-     * Returns boolean signifying if the Cell is flagged
-     * @return true if Cell is flagged
-     */
-    public boolean isFlagged() {
-        return isFlagged;
-    }
-
-    /**
-     * Returns x-position of Cell in board double array
-     * @return x-position of Cell in board double array
-     */
-    public int getMyX() {
-        return boardX;
-    }
-
-    /**
-     * Returns y-position of Cell in board double array
-     * @returny-position of Cell in board double array
-     */
-    public int getMyY() {
-        return boardY;
-    }
-
-    /**
-     * Returns boolean signifying if Cell is opened
-     * @return true if Cell is opened
-     */
-    public boolean isOpened() {
-        return isOpened;
-    }
-
-    /**
-     * Returns value of Cell
-     * @return value of Cell, -1 if mine, 0 - 8 for respective numbers
-     */
-    public int getValue() {
-        return value;
-    }
-
-    /**
-     * Sets value of the Cell
-     * @param value value of the cell, -1 if mine, 0-8 for corresponding numerical icon
-     */
-    public void setValue(int value) {
-        this.value = value;
-    }
-
-    /**
-     * Increments value of Cell if Cell is not a mine
-     */
-    public void incrementValueIfNotMine() {
-        if (value != -1) {
-            value++;
-        }
-    }
-    
-    /**
-     * Inner class RightClickCellListener
-     * Listens for a right click, calls flag if so
-     */
-    class RightClickCellListener implements MouseListener {
-        /**
-         * Checks if right-click-button is pressed, if so calls flag
-         */
-        public void mousePressed(MouseEvent e) {
-            if (e.getButton() == MouseEvent.BUTTON3) {
-                Cell s = (Cell) e.getSource();
-                s.flag();
-            }
-        }
-
-        // Unused methods
-        
-        public void mouseClicked(MouseEvent e) {
-            // do nothing
-        }
-
-        public void mouseEntered(MouseEvent e) {
-            // do nothing
-        }
-
-        public void mouseExited(MouseEvent e) {
-            // do nothing
-        }
-
-        public void mouseReleased(MouseEvent e) {
-            // do nothing
-        }
-    }
-
-    /**
-     * Inner class CellListener
-     * Checks for control-click or regular click, calls flag or reveal
-     */
-    class CellListener implements ActionListener {
-        /**
-         * Checks whether the control key was held, calls Cells flag if so, calls reveal otherwise
-         */
-        public void actionPerformed(ActionEvent event) {
-            int mods = event.getModifiers();
-            if ((mods & ActionEvent.CTRL_MASK) != 0) {
-                // control key was held, flag
-                Cell s = (Cell) event.getSource();
-                s.flag();
-            } else {
-                // control key not held, reveal
-                Cell s = (Cell) event.getSource();
-                s.reveal(true);
-            }
-        }
-    }
-}
+import javax.swing.*;
+import javax.swing.Timer;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Class Minesweeper
+ * @author Tarang Lunawat
+ * Opens a JFrame in which a game of Minesweeper can be played
+ */
+public class Minesweeper
+{
+    // Game specification constants
+    private final int boardDimensions = 10;
+    private final int mineNum = 10;
+
+    // Game state, and the Cells which display it
+    // Everyone run with the same -Dminesweeper.tournamentSeed (and -Dminesweeper.tournamentRound) plays the same board
+    private final Long tournamentSeed = Long.getLong("minesweeper.tournamentSeed");
+    // Otherwise the board is taken from the shared BoardPool when "Go!" is pressed; until then this one is never generated
+    private Board board = tournamentSeed == null ? new Board(boardDimensions, boardDimensions, mineNum)
+        : new Board(boardDimensions, boardDimensions, mineNum, Tournament.seedFor(tournamentSeed, Integer.getInteger("minesweeper.tournamentRound", 0)));
+    private final GameScreenListener screenListener = new GameScreenListener();
+    private DifficultyAnalyzer.Rating rating;
+    // Board's relocation count when it was rated, so a board changed by its first click is rated again
+    private int ratedRelocations;
+    private Cell[][] cells;
+    private String playerName;
+
+    // JFrame & associated graphics objects
+    private CardLayout shuffler;
+    private JFrame frame;
+    private JPanel cards;
+    private JPanel welcomeS;
+    private JPanel gameS;
+    private JPanel endS;
+    private JLabel winLose;
+    private JButton goToEndScreen;
+    private JLabel gameStats;
+    private JTextField playerNameInput;
+    private JButton go;
+    private JCheckBox practice;
+    private JButton undo;
+    private JButton redo;
+
+    // Timing variables
+    private Timer t;
+    private BroadcastService broadcast;
+    private final long launchNanos;
+
+    // The player's game history, opened (and its small segments merged) once in the background at startup
+    private CompletableFuture<GameArchive> archive;
+    private boolean firstPaintReported = false;
+
+    /**
+     * Main method, initializes and opens the game on the event dispatch thread
+     */
+    public static void main (String[] args)
+    {
+        long launchNanos = System.nanoTime();
+        SwingUtilities.invokeLater(() -> {
+            Minesweeper m = new Minesweeper(launchNanos);
+            m.openGame();
+        });
+    }
+
+    /**
+     * Constructor
+     * Initializes JFrame and layouts, and starts loading images and generating the board in the background
+     * Must be called on the event dispatch thread
+     */
+    public Minesweeper() {
+        this(System.nanoTime());
+    }
+    
+    /**
+     * Constructor
+     * Initializes JFrame and layouts, and starts loading images and generating the board in the background
+     * "Go!" is enabled once both are done, and stays disabled with an error shown if either fails
+     * Must be called on the event dispatch thread
+     * @param launchNanos System.nanoTime() when the program started, for reporting startup times
+     */
+    public Minesweeper(long launchNanos) {
+        this.launchNanos = launchNanos;
+        if (!SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("Minesweeper must be created on the event dispatch thread");
+        }
+
+        // Game window
+        frame = new JFrame();
+        frame.setPreferredSize(new Dimension(800, 800));
+        frame.setTitle("Minesweeper");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        
+        // CardLayout to switch through different screens of the game
+        shuffler = new CardLayout();
+        cards = new JPanel(shuffler);
+        setUpCards();
+        Container pane = frame.getContentPane();
+        pane.add(cards, BorderLayout.CENTER);
+        
+        frame.pack();
+
+        // Updates graphics whenever the board changes
+        board.addBoardListener(screenListener);
+
+        // Loads all image icons displayed by game cells and generates the board while the welcome screen is shown
+        // Started once the screens exist, so finishing can never find "Go!" missing
+        // Normal games start generating in the pool; only a tournament board is generated here
+        CompletableFuture<Void> images = CompletableFuture.runAsync(Cell::loadImages);
+        CompletableFuture<Void> generated;
+        if (tournamentSeed == null) {
+            BoardPool.shared().prepare(boardDimensions, boardDimensions, mineNum);
+            generated = CompletableFuture.completedFuture(null);
+        } else {
+            generated = CompletableFuture.runAsync(() -> {
+                board.generate();
+                rateBoard();
+            });
+        }
+        // A history that cannot be opened only loses archiving, so it does not hold up "Go!"
+        archive = CompletableFuture.supplyAsync(() -> {
+            try {
+                GameArchive a = GameArchive.forUser();
+                a.compact();
+                return a;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        CompletableFuture.allOf(images, generated).whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                // "Go!" stays disabled, since the game cannot be played without its images or board
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                cause.printStackTrace();
+                JOptionPane.showMessageDialog(frame, "Minesweeper could not start: " + cause.getMessage(),
+                    "Minesweeper", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            System.out.println("Ready to play after " + (System.nanoTime() - launchNanos) / 1000000 + " ms");
+            go.setEnabled(true);
+        }));
+    }
+    
+    /**
+     * Sets up all screens of the game (welcomeS, gameS, endS) by creating and adding respective elements
+     */
+    public void setUpCards() {
+        // Welcome screen
+        welcomeS = new JPanel();
+        welcomeS.setLayout(null);
+
+        JPanel wSDrawings = new NameJPanel();
+        wSDrawings.setBounds(0, 0, 800, 100);
+        welcomeS.add(wSDrawings);
+
+        JLabel enterName = new JLabel("Enter name: ");
+        enterName.setBounds(285, 120, 100, 30);
+        welcomeS.add(enterName);
+
+        playerNameInput = new JTextField("Anonymous");
+        playerNameInput.setBounds(390, 120, 100, 30);
+        welcomeS.add(playerNameInput);
+
+        JLabel toPlay = new JLabel("To play:");
+        toPlay.setBounds(285, 150, 100, 50);
+        JLabel rightClickInstructions = new JLabel("Right click or ctrl+click to flag");
+        rightClickInstructions.setBounds(300, 170, 200, 50);
+        JLabel revealInstructions = new JLabel("Click to open");
+        revealInstructions.setBounds(300, 190, 100, 50);
+        welcomeS.add(toPlay);
+        welcomeS.add(rightClickInstructions);
+        welcomeS.add(revealInstructions);
+        
+        JLabel gameDescription = new JLabel("The objective of the game is to open all squares");
+        JLabel gD2 = new JLabel("which do not contain a mine. Numbers are the ");
+        JLabel gD3 = new JLabel("amount of surrounding squares that contain a");
+        JLabel gD4 = new JLabel("mine. The game is won by opening all non-mine");
+        JLabel gD5 = new JLabel("squares and lost if a mine is opened.");
+        gameDescription.setBounds(285, 250, 350, 50);
+        gD2.setBounds(285, 270, 350, 50);
+        gD3.setBounds(285, 290, 350, 50);
+        gD4.setBounds(285, 310, 350, 50);
+        gD5.setBounds(285, 330, 350, 50);
+        welcomeS.add(gameDescription);
+        welcomeS.add(gD2);
+        welcomeS.add(gD3);
+        welcomeS.add(gD4);
+        welcomeS.add(gD5);
+        
+        practice = new JCheckBox("Practice mode (undo and redo, not recorded)");
+        practice.setBounds(285, 360, 350, 30);
+        welcomeS.add(practice);
+
+        go = new JButton("Go!");
+        go.setBounds(370, 390, 60, 30);
+        go.setEnabled(false);
+        ActionListener goListener = new GoListener();
+        go.addActionListener(goListener);
+        welcomeS.add(go);
+
+        cards.add(welcomeS, "Welcome Screen");
+        
+        // Game screen
+        gameS = new JPanel();
+        gameS.setLayout(null);
+
+        JPanel gSDrawings = new NameJPanel();
+        gSDrawings.setBounds(0, 0, 800, 100);
+        gameS.add(gSDrawings);
+
+        winLose = new JLabel();
+        winLose.setBounds(350, 350, 500, 500);
+        winLose.setFont(new Font(winLose.getFont().getName(), Font.PLAIN, 14));
+        gameS.add(winLose);
+
+        gameStats = new JLabel(getGameStatsString());
+        gameStats.setBounds(250, 120, 400, 40);
+        gameS.add(gameStats);
+
+        goToEndScreen = new JButton("Next");
+        goToEndScreen.setVisible(false);
+        goToEndScreen.setBounds(370, 650, 60, 30);
+        ActionListener nextListener = new NextListener();
+        goToEndScreen.addActionListener(nextListener);
+        gameS.add(goToEndScreen);
+
+        undo = new JButton("Undo");
+        undo.setVisible(false);
+        undo.setBounds(270, 650, 80, 30);
+        undo.addActionListener(e -> {
+            board.undo();
+            updateUndoButtons();
+        });
+        gameS.add(undo);
+
+        redo = new JButton("Redo");
+        redo.setVisible(false);
+        redo.setBounds(450, 650, 80, 30);
+        redo.addActionListener(e -> {
+            board.redo();
+            updateUndoButtons();
+        });
+        gameS.add(redo);
+
+        cards.add(gameS, "Game Screen");
+
+        // End screen
+        endS = new JPanel();
+        endS.setLayout(null);
+        JPanel eSDrawings = new NameJPanel();
+        eSDrawings.setBounds(0, 0, 800, 100);
+        endS.add(eSDrawings);
+        cards.add(endS, "End Screen");
+    }
+
+    /**
+     * Inner class NameJPanel
+     * Displays "Minesweeper" at top of each screen
+     */
+    class NameJPanel extends JPanel {
+        private static final long serialVersionUID = 1L;
+
+        public void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setFont(new Font(g2.getFont().getFontName(), Font.PLAIN, 30));
+            g2.drawString("Minesweeper", 307, 40);
+            if (!firstPaintReported) {
+                firstPaintReported = true;
+                System.out.println("First paint after " + (System.nanoTime() - launchNanos) / 1000000 + " ms");
+            }
+        }
+    }
+
+    /**
+     * Interface method, shows the welcome screen
+     */
+    public void openGame() {
+        shuffler.show(cards, "Welcome Screen");
+        frame.setVisible(true);
+    }
+
+    /**
+     * Inner class GoListener
+     * Records player name and advances game
+     */
+    class GoListener implements ActionListener {
+        public void actionPerformed(ActionEvent event) {
+            playerName = playerNameInput.getText();
+            playGame();
+            board.setPracticeMode(practice.isSelected());
+            undo.setVisible(practice.isSelected());
+            redo.setVisible(practice.isSelected());
+            updateUndoButtons();
+        }
+    }
+
+    /**
+     * Interface method
+     * @return true, signals game has began
+     * Takes a board generated in the background from the pool (or uses the tournament board generated at startup),
+     * draws it and initializes timer to keep track of gameplay time
+     */
+    public boolean playGame() {
+        if (tournamentSeed == null) {
+            useBoard(BoardPool.shared().take(boardDimensions, boardDimensions, mineNum));
+        }
+        createCells();
+        if (tournamentSeed != null && board.isFirstClick()) {
+            // Every player starts from the same revealed opening, so no first click can move a mine
+            int opening = Tournament.openingOf(board);
+            board.reveal(opening % board.getWidth(), opening / board.getWidth());
+        }
+        TimeListener listener = new TimeListener();
+        t = new Timer(1000, listener);
+        t.start();
+
+        // Streams the game to spectators, sending the changes of each frame, if run with -Dminesweeper.broadcastPort
+        Integer port = Integer.getInteger("minesweeper.broadcastPort");
+        if (port != null && broadcast == null) {
+            try {
+                broadcast = new BroadcastService(board);
+                System.out.println("Broadcasting on port " + broadcast.listen(port));
+                new Timer(33, e -> broadcast.flush()).start();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        shuffler.show(cards, "Game Screen");
+        return true;
+    }
+
+    /**
+     * Switches the game to another board, moving the screen's listener to it and rating it
+     * @param b generated Board with no listeners
+     */
+    private void useBoard(Board b) {
+        board.removeBoardListener(screenListener);
+        board = b;
+        board.addBoardListener(screenListener);
+        rateBoard();
+    }
+
+    /**
+     * Rates the board's current mine layout, which a first click on a mine changes
+     */
+    private void rateBoard() {
+        ratedRelocations = board.getRelocations();
+        rating = new DifficultyAnalyzer().analyze(board, 0);
+    }
+
+    /**
+     * Creates a Cell for every square of the board and calls method to draw them on JFrame
+     */
+    private void createCells() {
+        cells = new Cell[board.getHeight()][board.getWidth()];
+        for (int i = 0; i < cells.length; i++) {
+            for (int j = 0; j < cells[i].length; j++) {
+                cells[i][j] = new Cell(j, i, this);
+            }
+        }
+        // Adds cells to JFrame if not already done
+        drawBoard();
+    }
+
+    /**
+     * Adds all cells to game JFrame
+     */
+    private void drawBoard() {
+        for (Cell[] row : cells) {
+            for (Cell c : row) {
+                c.setVisible(true);
+                gameS.add(c);
+            }
+        }
+    }
+
+    /**
+     * Enables the practice mode Undo and Redo JButtons only when there is something to undo or redo
+     */
+    private void updateUndoButtons() {
+        undo.setEnabled(board.canUndo());
+        redo.setEnabled(board.canRedo());
+    }
+
+    /**
+     * Inner class GameScreenListener
+     * Updates Cell icons, game stats and the win/lose message as the board changes
+     */
+    class GameScreenListener implements BoardListener {
+        public void cellsOpened(Board b, int[] opened, int count) {
+            int w = b.getWidth();
+            for (int k = 0; k < count; k++) {
+                int x = opened[k] % w;
+                int y = opened[k] / w;
+                cells[y][x].showValue(b.getValue(x, y));
+            }
+            // A first click on a mine moved it, so the board being played is no longer the one rated
+            if (b.getRelocations() != ratedRelocations) {
+                rateBoard();
+            }
+            updateUndoButtons();
+        }
+
+        public void cellsClosed(Board b, int[] closed, int count) {
+            int w = b.getWidth();
+            for (int k = 0; k < count; k++) {
+                int x = closed[k] % w;
+                int y = closed[k] / w;
+                cells[y][x].showFlag(b.isFlagged(x, y));
+            }
+        }
+
+        public void flagChanged(Board b, int cell, boolean flagged) {
+            cells[cell / b.getWidth()][cell % b.getWidth()].showFlag(flagged);
+            gameStats.setText(getGameStatsString());
+            updateUndoButtons();
+        }
+
+        public void gameWon(Board b) {
+            t.stop();
+            winLose.setText("Game Won!");
+            goToEndScreen.setVisible(true);
+            updateUndoButtons();
+        }
+
+        /**
+         * Stops timer, reveals unflagged mines and wrong flags
+         * Sets JLabel text to "Game Lost" and displays "Next" JButton
+         */
+        public void gameLost(Board b, int cell) {
+            t.stop();
+            winLose.setText("Game Lost!");
+            goToEndScreen.setVisible(true);
+            // The losing click can be undone in practice mode
+            updateUndoButtons();
+            for (int y = 0; y < b.getHeight(); y++) {
+                for (int x = 0; x < b.getWidth(); x++) {
+                    if (b.getValue(x, y) == Board.MINE && !b.isFlagged(x, y)) {
+                        cells[y][x].revealMine();
+                    } else if (b.getValue(x, y) != Board.MINE && b.isFlagged(x, y)) {
+                        cells[y][x].showCross();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Redraws every Cell from the board, hiding the revealed mines and wrong flags of a lost game,
+         * clears the win/lose message and restarts the timer
+         */
+        public void gameResumed(Board b) {
+            for (int y = 0; y < b.getHeight(); y++) {
+                for (int x = 0; x < b.getWidth(); x++) {
+                    if (b.isOpened(x, y)) {
+                        cells[y][x].showValue(b.getValue(x, y));
+                    } else {
+                        cells[y][x].showFlag(b.isFlagged(x, y));
+                    }
+                }
+            }
+            winLose.setText("");
+            goToEndScreen.setVisible(false);
+            t.start();
+        }
+
+        public void tick(Board b, int seconds) {
+            gameStats.setText(getGameStatsString());
+        }
+    }
+
+    /**
+     * Inner class NextListener
+     * Advances game to ending screen
+     */
+    class NextListener implements ActionListener {
+        public void actionPerformed(ActionEvent event) {
+            endGame();
+        }
+    }
+
+    /**
+     * Inner class TimeListener
+     * Advances the board's clock, which updates the corresponding JLabel
+     */
+    class TimeListener implements ActionListener {
+        public void actionPerformed(ActionEvent e) {
+            board.tick();
+        }
+    }
+
+    /**
+     * Interface method
+     * Updates stats JLabels and displays ending screen
+     */
+    public void endGame() {
+        JLabel eSMessage = new JLabel();
+        eSMessage.setBounds(300, 120, 400, 40);
+        if (isLost()) {
+            eSMessage.setText("Better luck next time, " + playerName);
+        } else {
+            eSMessage.setText("Congrats " + playerName + ", you won!");
+        }
+        endS.add(eSMessage);
+
+        JLabel stats = new JLabel("Your stats: ");
+        stats.setBounds(300, 150, 400, 40);
+        endS.add(stats);
+
+        JLabel wrongFlags = new JLabel("Wrong flags: " + board.getWronglyFlaggedCount() + " flag(s)");
+        wrongFlags.setBounds(310, 170, 400, 40);
+        endS.add(wrongFlags);
+
+        JLabel time = new JLabel("Time taken: " + board.getSeconds() + " seconds");
+        time.setBounds(310, 190, 400, 40);
+        endS.add(time);
+
+        JLabel score = new JLabel("Score: " + getScore().substring(playerName.length()));
+        score.setBounds(310, 210, 400, 40);
+        endS.add(score);
+
+        JLabel difficulty = new JLabel("Board difficulty: " + rating.getDifficulty() + " (" + rating.bbbv + " clicks, "
+            + rating.guesses + " guess(es))");
+        difficulty.setBounds(310, 230, 400, 40);
+        endS.add(difficulty);
+
+        // Adds this game to the player's history without holding up the end screen; practice games are not kept
+        if (!board.isPracticeMode()) {
+            String name = playerName;
+            int seconds = board.getSeconds();
+            int wrongFlagCount = board.getWronglyFlaggedCount();
+            boolean won = isWon();
+            long finishedAt = System.currentTimeMillis();
+            int width = board.getWidth();
+            int height = board.getHeight();
+            int mines = board.getMineNum();
+            archive.thenAcceptAsync(a -> {
+                try {
+                    // Flushed at once so the game survives the window being closed; the archive merges the
+                    // small segments this leaves behind once there are enough of them
+                    a.record(name, width, height, mines, seconds, wrongFlagCount, won, finishedAt);
+                    a.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).exceptionally(e -> {
+                e.printStackTrace();
+                return null;
+            });
+        }
+
+        shuffler.show(cards, "End Screen");
+    }
+
+    /**
+     * Interface method
+     * @return String containing playerName and score, 0 if game lost
+     * The score is normalized by the board's difficulty, so games on easy and hard boards compare fairly; higher is better
+     */
+    public String getScore() {
+        if (!isWon()) {
+            return playerName + " 0";
+        } else {
+            return playerName + " " + rating.getNormalizedScore(board.getSeconds(), board.getWronglyFlaggedCount());
+        }
+    }
+
+    /**
+     * Gets full updated string to be shown for game stats
+     * @return full displayed game stats string
+     */
+    public String getGameStatsString() {
+        return "Flags remaining: " + board.getFlagsRemaining() + "     Seconds elasped: " + board.getSeconds();
+    }
+
+    /**
+     * Returns player name
+     * @return player name
+     */
+    public String returnUsername() {
+        return playerName;
+    }
+
+    /**
+     * Returns the board being played
+     * @return game Board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns boolean signifying if game is lost
+     * @return true if game is lost
+     */
+    public boolean isLost() {
+        return board.isLost();
+    }
+
+    /**
+     * Returns boolean signifying if game is won
+     * @return true if game is won
+     */
+    public boolean isWon() {
+        return board.isWon();
+    }
+}
+
+/**
+ * Private class Cell
+ * @author Tarang
+ * Represents a single square of the Minesweeper board
+ */
+class Cell extends JButton {
+    private static final long serialVersionUID = 1L;
+
+    // Final variables representing graphics position and icons
+    public static final int CELL_SIZE = 40;
+    public static final int BOARD_X_OFFSET = 190;
+    public static final int BOARD_Y_OFFSET = 175;
+    private static ImageIcon[] images; // -1 to 8 corresponds to value, 9 is flag, 10 is unopened, 11 is wrongly flagged cross
+
+    // x and y positions in the board double array
+    private int boardX;
+    private int boardY;
+    
+    // Reference to Minesweeper instance to which the Cell belongs
+    private Minesweeper gameRef;
+    
+    /**
+     * Constructor, sets Icon to unopened, adds action listeners, and intializes variables
+     * @param x x-coordinate of Cell in board double array
+     * @param y y-coordinate of Cell in board double array
+     * @param ref reference to the instance of Minesweeper to which the Cell belongs
+     */
+    public Cell(int x, int y, Minesweeper ref) {
+        // sets icon to unopened
+        super(images[10]);
+        
+        // intializes values
+        this.boardX = x;
+        this.boardY = y;
+        gameRef = ref;
+        
+        // sets size
+        this.setBounds(BOARD_X_OFFSET + x * CELL_SIZE, BOARD_Y_OFFSET + y * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+
+        // adds action listeners
+        this.addActionListener(new CellListener());
+        this.addMouseListener(new RightClickCellListener());
+    }
+
+    // Wikimedia Commons URLs of icon images 0 to 10
+    private static final String[] IMAGE_URLS = {
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/8/80/Minesweeper_0.svg/800px-Minesweeper_0.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/c/ca/Minesweeper_1.svg/1200px-Minesweeper_1.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/4/44/Minesweeper_2.svg/1200px-Minesweeper_2.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/0/08/Minesweeper_3.svg/1200px-Minesweeper_3.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/4/4f/Minesweeper_4.svg/1200px-Minesweeper_4.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/4/46/Minesweeper_5.svg/1200px-Minesweeper_5.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/c/cc/Minesweeper_6.svg/1200px-Minesweeper_6.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/5/56/Minesweeper_7.svg/1200px-Minesweeper_7.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/0/0d/Minesweeper_8.svg/1200px-Minesweeper_8.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/8/83/Minesweeper_flag.svg/1200px-Minesweeper_flag.svg.png",
+            "https://upload.wikimedia.org/wikipedia/commons/thumb/c/c7/Minesweeper_unopened_square.svg/800px-Minesweeper_unopened_square.svg.png"
+    };
+
+    /**
+     * Static method, fetches icon images from Wikimedia Commons URLs in parallel and creates one for wrong flags
+     * Throws IllegalStateException if any image could not be fetched
+     */
+    public static void loadImages() {
+        ImageIcon[] loaded = new ImageIcon[12];
+        ExecutorService fetchers = Executors.newFixedThreadPool(IMAGE_URLS.length);
+        ArrayList<Future<ImageIcon>> fetches = new ArrayList<>();
+        for (String url : IMAGE_URLS) {
+            fetches.add(fetchers.submit(() -> {
+                ImageIcon fetched = new ImageIcon(new URL(url));
+                if (fetched.getImageLoadStatus() != MediaTracker.COMPLETE) {
+                    throw new IOException("Could not fetch " + url);
+                }
+                return new ImageIcon(fetched.getImage().getScaledInstance(CELL_SIZE, CELL_SIZE, Image.SCALE_FAST));
+            }));
+        }
+        fetchers.shutdown();
+        Exception failure = null;
+        for (int i = 0; i < fetches.size(); i++) {
+            try {
+                loaded[i] = fetches.get(i).get();
+            } catch (InterruptedException | ExecutionException e) {
+                // This should not happen unless you don't have internet connection - then the images won't load
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Could not load the Cell images; check your internet connection", failure);
+        }
+        BufferedImage wrongFlag = new BufferedImage(CELL_SIZE, CELL_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = wrongFlag.createGraphics();
+        graphics.setPaint(new Color(0, 51, 61));
+        graphics.fillRect(0, 0, CELL_SIZE, CELL_SIZE);
+        graphics.setPaint(new Color(252, 3, 3));
+        graphics.drawLine(0, 0, CELL_SIZE, CELL_SIZE);
+        graphics.drawLine(0, CELL_SIZE, CELL_SIZE, 0);
+        loaded[11] = new ImageIcon(wrongFlag);
+        images = loaded;
+    }
+
+    /**
+     * Opens this Cell on the game board
+     * The board checks if game is lost or won and publishes the resulting changes
+     */
+    public void reveal() {
+        gameRef.getBoard().reveal(boardX, boardY);
+    }
+
+    /**
+     * Flags or unflags this Cell on the game board depending on current state
+     */
+    public void flag() {
+        gameRef.getBoard().flag(boardX, boardY);
+    }
+
+    /**
+     * Shows icon of an opened Cell
+     * @param value value of the Cell, 0 - 8 for respective numbers
+     */
+    public void showValue(int value) {
+        this.setIcon(images[value]);
+    }
+
+    /**
+     * Shows flag icon or unopened icon
+     * @param flagged true if Cell is flagged
+     */
+    public void showFlag(boolean flagged) {
+        this.setIcon(flagged ? images[9] : images[10]);
+    }
+    
+    /*
+     * Reveals all remaining mines after the game is lost
+     * Creates a new, randomly colored icon for each mine
+     */
+    public void revealMine() {
+        // Create image
+        BufferedImage openMine = new BufferedImage(CELL_SIZE, CELL_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = openMine.createGraphics();
+        
+        // Select color and draw square and circle
+        Color random = new Color((int) (Math.random() * 255), (int) (Math.random() * 255), (int) (Math.random() * 255));
+        graphics.setPaint(random.brighter());
+        graphics.fillRect(0, 0, openMine.getWidth(), openMine.getHeight());
+        graphics.setPaint(random.darker());
+        graphics.fillOval(0 + CELL_SIZE / 4, 0 + CELL_SIZE / 4, CELL_SIZE / 2, CELL_SIZE / 2);
+        
+        // Set as icon
+        this.setIcon(new ImageIcon(openMine));
+    }
+    
+    /**
+     * Shows icon signifying that Cell was wrongly flagged
+     */
+    public void showCross() {
+        this.setIcon(images[11]);
+    }
+    
+    /**
+     * Returns x-position of Cell in board double array
+     * @return x-position of Cell in board double array
+     */
+    public int getMyX() {
+        return boardX;
+    }
+
+    /**
+     * Returns y-position of Cell in board double array
+     * @returny-position of Cell in board double array
+     */
+    public int getMyY() {
+        return boardY;
+    }
+    
+    /**
+     * Inner class RightClickCellListener
+     * Listens for a right click, calls flag if so
+     */
+    class RightClickCellListener implements MouseListener {
+        /**
+         * Checks if right-click-button is pressed, if so calls flag
+         */
+        public void mousePressed(MouseEvent e) {
+            if (e.getButton() == MouseEvent.BUTTON3) {
+                Cell s = (Cell) e.getSource();
+                s.flag();
+            }
+        }
+
+        // Unused methods
+        
+        public void mouseClicked(MouseEvent e) {
+            // do nothing
+        }
+
+        public void mouseEntered(MouseEvent e) {
+            // do nothing
+        }
+
+        public void mouseExited(MouseEvent e) {
+            // do nothing
+        }
+
+        public void mouseReleased(MouseEvent e) {
+            // do nothing
+        }
+    }
+
+    /**
+     * Inner class CellListener
+     * Checks for control-click or regular click, calls flag or reveal
+     */
+    class CellListener implements ActionListener {
+        /**
+         * Checks whether the control key was held, calls Cells flag if so, calls reveal otherwise
+         */
+        public void actionPerformed(ActionEvent event) {
+            int mods = event.getModifiers();
+            if ((mods & ActionEvent.CTRL_MASK) != 0) {
+                // control key was held, flag
+                Cell s = (Cell) event.getSource();
+                s.flag();
+            } else {
+                // control key not held, reveal
+                Cell s = (Cell) event.getSource();
+                s.reveal();
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class Tournament
+ * A ranked event where every player plays the same fixed set of boards, each generated from a seed derived from
+ * the tournament's seed, so a tournament can be rebuilt anywhere from its seed and board specification
+ * Each round's board starts with a published opening Cell revealed, so no player's first click can move a mine and
+ * every player plays exactly the same mines, whatever they click
+ * Players play in concurrent Sessions; each finished round is scored by DifficultyAnalyzer's normalized score and
+ * added to live standings, which are kept without locks: each player's standing is an immutable record swapped in
+ * by compare-and-set, and also kept in a skip list sorted by rank, so standings can be read during a burst of
+ * submissions without blocking any of them
+ */
+public class Tournament
+{
+    private final int width;
+    private final int height;
+    private final int mineNum;
+    private final long[] seeds;
+
+    // Ratings of each round's board, computed by the first player to finish that round
+    private final DifficultyAnalyzer.Rating[] ratings;
+    // Opening Cell of each round's board, -1 until first asked for
+    private final int[] openings;
+
+    // Current standing of each player, and every current standing in rank order
+    private final ConcurrentHashMap<String, AtomicReference<Standing>> players = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Standing, Boolean> ranking = new ConcurrentSkipListMap<>();
+
+    /**
+     * Constructor
+     * @param width number of columns of every board
+     * @param height number of rows of every board
+     * @param mineNum number of mines on every board
+     * @param seed tournament seed from which every board is derived
+     * @param rounds number of boards
+     */
+    public Tournament(int width, int height, int mineNum, long seed, int rounds) {
+        Board.checkSpecification(width, height, mineNum);
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("Invalid number of rounds: " + rounds);
+        }
+        this.width = width;
+        this.height = height;
+        this.mineNum = mineNum;
+        seeds = new long[rounds];
+        for (int r = 0; r < rounds; r++) {
+            seeds[r] = seedFor(seed, r);
+        }
+        ratings = new DifficultyAnalyzer.Rating[rounds];
+        openings = new int[rounds];
+        Arrays.fill(openings, -1);
+    }
+
+    /**
+     * Returns the seed of one round's board, so a tournament's boards can be generated without a Tournament
+     * @param seed tournament seed
+     * @param round round number, from 0
+     * @return board seed
+     */
+    public static long seedFor(long seed, int round) {
+        // SplitMix64, so neighboring rounds get unrelated boards
+        return LazyBoard.mix(seed + (round + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Returns the Cell revealed for every player before a tournament board is played: the first empty Cell, so the
+     * opening cascades, or the first safe Cell if the board has no empty one
+     * Revealing it ends the first click, so the board's mines are never relocated and stay as they were rated
+     * @param b generated Board, before any click
+     * @return Cell index, y * width + x
+     */
+    public static int openingOf(Board b) {
+        int safe = -1;
+        for (int i = 0; i < b.getWidth() * b.getHeight(); i++) {
+            int v = b.getValue(i % b.getWidth(), i / b.getWidth());
+            if (v == 0) {
+                return i;
+            }
+            if (v != Board.MINE && safe < 0) {
+                safe = i;
+            }
+        }
+        return safe;
+    }
+
+    /**
+     * Class Standing
+     * One player's results at one moment, never changed once made; orders by total score, highest first,
+     * then by total seconds, lowest first, then by name
+     */
+    public static final class Standing implements Comparable<Standing> {
+        public final String player;
+        public final long score;
+        public final long seconds;
+        public final int roundsPlayed;
+        // Score of each round, -1 if not yet played
+        private final long[] roundScores;
+
+        Standing(String player, long score, long seconds, long[] roundScores) {
+            this.player = player;
+            this.score = score;
+            this.seconds = seconds;
+            this.roundScores = roundScores;
+            int played = 0;
+            for (long s : roundScores) {
+                if (s >= 0) {
+                    played++;
+                }
+            }
+            roundsPlayed = played;
+        }
+
+        /**
+         * Returns the score of one round
+         * @param round round number
+         * @return score, -1 if not yet played
+         */
+        public long getRoundScore(int round) {
+            return roundScores[round];
+        }
+
+        public int compareTo(Standing o) {
+            if (score != o.score) {
+                return Long.compare(o.score, score);
+            }
+            if (seconds != o.seconds) {
+                return Long.compare(seconds, o.seconds);
+            }
+            return player.compareTo(o.player);
+        }
+
+        public String toString() {
+            return player + " " + score + " (" + roundsPlayed + " round(s), " + seconds + " s)";
+        }
+    }
+
+    /**
+     * Class Session
+     * One player's games in the tournament; a Session is used by one thread, while different Sessions
+     * can play and submit concurrently
+     */
+    public class Session {
+        private final String player;
+        private final Board[] boards = new Board[seeds.length];
+
+        Session(String player) {
+            this.player = player;
+        }
+
+        /**
+         * Returns this player's board for a round, generating it and revealing its opening the first time
+         * @param round round number, from 0
+         * @return Board identical to every other player's board for this round
+         */
+        public Board getBoard(int round) {
+            if (boards[round] == null) {
+                Board b = new Board(width, height, mineNum, seeds[round]);
+                b.generate();
+                int opening = getOpening(round);
+                b.reveal(opening % width, opening / width);
+                boards[round] = b;
+            }
+            return boards[round];
+        }
+
+        /**
+         * Scores a finished round and adds it to the standings
+         * @param round round number
+         * @return false if the round was already submitted
+         */
+        public boolean submit(int round) {
+            Board b = boards[round];
+            if (b == null || !(b.isWon() || b.isLost())) {
+                throw new IllegalStateException("Round " + round + " has not been finished");
+            }
+            long score = b.isWon() ? getRating(round).getNormalizedScore(b.getSeconds(), b.getWronglyFlaggedCount()) : 0;
+            return record(player, round, score, b.getSeconds());
+        }
+
+        public String getPlayer() {
+            return player;
+        }
+    }
+
+    /**
+     * Adds a player to the tournament, or returns a new Session for a player already in it
+     * @param player player name
+     * @return Session to play the tournament's boards in
+     */
+    public Session join(String player) {
+        players.computeIfAbsent(player, p -> {
+            long[] none = new long[seeds.length];
+            Arrays.fill(none, -1);
+            Standing s = new Standing(p, 0, 0, none);
+            ranking.put(s, Boolean.TRUE);
+            return new AtomicReference<>(s);
+        });
+        return new Session(player);
+    }
+
+    /**
+     * Returns the rating of a round's board, rating it the first time it is asked for
+     * @param round round number
+     * @return rating of the board
+     */
+    public DifficultyAnalyzer.Rating getRating(int round) {
+        DifficultyAnalyzer.Rating r = ratings[round];
+        if (r == null) {
+            // Rating the same board twice gives equal ratings, so a race only costs time
+            r = DifficultyAnalyzer.rate(width, height, mineNum, seeds[round]);
+            ratings[round] = r;
+        }
+        return r;
+    }
+
+    /**
+     * Returns the Cell revealed on a round's board before it is played, finding it the first time it is asked for
+     * @param round round number
+     * @return Cell index, y * width + x
+     */
+    public int getOpening(int round) {
+        int opening = openings[round];
+        if (opening < 0) {
+            // Every player's board is the same, so a race only costs time
+            Board b = new Board(width, height, mineNum, seeds[round]);
+            b.generate();
+            opening = openingOf(b);
+            openings[round] = opening;
+        }
+        return opening;
+    }
+
+    /**
+     * Adds one round's result to a player's standing, without locking
+     * @param player player name
+     * @param round round number
+     * @param score round score
+     * @param seconds seconds taken
+     * @return false if the player has already submitted this round
+     */
+    boolean record(String player, int round, long score, long seconds) {
+        AtomicReference<Standing> current = players.get(player);
+        Standing old;
+        Standing updated;
+        do {
+            old = current.get();
+            if (old.roundScores[round] >= 0) {
+                return false;
+            }
+            long[] roundScores = old.roundScores.clone();
+            roundScores[round] = score;
+            updated = new Standing(player, old.score + score, old.seconds + seconds, roundScores);
+        } while (!current.compareAndSet(old, updated));
+
+        // Added before the old standing is removed, so the player is never missing from the ranking; a standing
+        // which ranks the same as the old one (a lost round taking no time) keeps the old entry
+        ranking.put(updated, Boolean.TRUE);
+        if (old.compareTo(updated) != 0) {
+            ranking.remove(old);
+        }
+        // A later submission may have replaced this standing before it was added, and removed nothing then;
+        // totals only grow, so no later standing can rank the same as this one once another has replaced it
+        if (current.get().compareTo(updated) != 0) {
+            ranking.remove(updated);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the leading players, best first, without blocking submissions
+     * A player whose standing changes during the call appears once, with their latest standing
+     * @param top largest number of players to return
+     * @return standings in rank order
+     */
+    public List<Standing> getStandings(int top) {
+        ArrayList<Standing> result = new ArrayList<>();
+        HashSet<String> seen = new HashSet<>();
+        for (Standing s : ranking.keySet()) {
+            if (result.size() == top) {
+                break;
+            }
+            if (seen.add(s.player)) {
+                result.add(players.get(s.player).get());
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns a player's current standing
+     * @param player player name
+     * @return standing, or null if the player has not joined
+     */
+    public Standing getStanding(String player) {
+        AtomicReference<Standing> s = players.get(player);
+        return s == null ? null : s.get();
+    }
+
+    /**
+     * Returns a player's rank, counting the players ahead of them
+     * @param player player name
+     * @return rank from 1, or 0 if the player has not joined
+     */
+    public int getRank(String player) {
+        Standing s = getStanding(player);
+        if (s == null) {
+            return 0;
+        }
+        HashSet<String> ahead = new HashSet<>();
+        for (Standing o : ranking.headMap(s).keySet()) {
+            if (!o.player.equals(player)) {
+                ahead.add(o.player);
+            }
+        }
+        return ahead.size() + 1;
+    }
+
+    public int getRounds() {
+        return seeds.length;
+    }
+
+    /**
+     * Returns the seed of a round's board
+     * @param round round number
+     * @return board seed
+     */
+    public long getSeed(int round) {
+        return seeds[round];
+    }
+}
@@ -0,0 +1,43 @@
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Class VarLong
+ * Zigzag variable-length encoding of signed values, 7 bits per byte, used by the game archive and broadcast formats
+ */
+final class VarLong
+{
+    private VarLong() {
+    }
+
+    /**
+     * Writes a signed value in zigzag variable-length encoding, 7 bits per byte
+     * @param out stream to write to
+     * @param v value to write
+     */
+    static void write(ByteArrayOutputStream out, long v) {
+        long z = (v << 1) ^ (v >> 63);
+        while ((z & ~0x7FL) != 0) {
+            out.write((int) (z & 0x7F) | 0x80);
+            z >>>= 7;
+        }
+        out.write((int) z);
+    }
+
+    /**
+     * Reads a value written by write
+     * @param in buffer to read from
+     * @return value read
+     */
+    static long read(ByteBuffer in) {
+        long z = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            z |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (z >>> 1) ^ -(z & 1);
+    }
+}
@@ -0,0 +1,112 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class BoardTest
+ * Checks that Board's faster paths give exactly the results of the simple ones, and that practice mode's
+ * history keeps what can be redone
+ */
+public class BoardTest
+{
+    /**
+     * Bitboard generation gives exactly the same boards as incrementing around each mine
+     * Widths which are not multiples of 8 or 64 exercise the partial words
+     */
+    @Test
+    public void bitboardGenerationMatchesPerMine() {
+        int[][] sizes = { { 1, 1, 0 }, { 9, 9, 10 }, { 63, 5, 50 }, { 64, 64, 800 }, { 65, 3, 100 }, { 200, 7, 1300 }, { 500, 500, 100000 } };
+        for (int[] size : sizes) {
+            for (long seed = 0; seed < 10; seed++) {
+                Board perMine = new Board(size[0], size[1], size[2], seed);
+                Board bitboard = new Board(size[0], size[1], size[2], seed);
+                perMine.setBitboardGeneration(false);
+                bitboard.setBitboardGeneration(true);
+                perMine.generate();
+                bitboard.generate();
+                for (int y = 0; y < size[1]; y++) {
+                    for (int x = 0; x < size[0]; x++) {
+                        assertEquals(perMine.getValue(x, y), bitboard.getValue(x, y),
+                            "(" + x + ", " + y + ") on " + size[0] + "x" + size[1] + " with seed " + seed);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A click which changes nothing keeps the actions that can be redone; one which changes something drops them
+     */
+    @Test
+    public void unchangedActionKeepsRedo() {
+        Board b = new Board(9, 9, 10, 3);
+        b.generate();
+        b.setPracticeMode(true);
+        int[] numbered = new int[2];
+        int found = 0;
+        for (int i = 0; i < 81 && found < 2; i++) {
+            int v = b.getValue(i % 9, i / 9);
+            if (v > 0) {
+                numbered[found++] = i;
+            }
+        }
+        assertEquals(2, found);
+        int a = numbered[0];
+        int c = numbered[1];
+        b.reveal(a % 9, a / 9);
+        b.reveal(c % 9, c / 9);
+        assertTrue(b.undo());
+        assertFalse(b.isOpened(c % 9, c / 9));
+
+        // Revealing an opened Cell or flagging it changes nothing
+        b.reveal(a % 9, a / 9);
+        b.flag(a % 9, a / 9);
+        assertTrue(b.canRedo());
+        assertTrue(b.redo());
+        assertTrue(b.isOpened(c % 9, c / 9));
+
+        assertTrue(b.undo());
+        b.flag(c % 9, c / 9);
+        assertFalse(b.canRedo());
+        assertTrue(b.undo());
+        assertFalse(b.isFlagged(c % 9, c / 9));
+        assertTrue(b.isOpened(a % 9, a / 9));
+    }
+
+    /**
+     * A first click on a mine moves it and is counted, so the board can be rated again; generating resets the count
+     */
+    @Test
+    public void firstClickRelocationIsCounted() {
+        Board b = new Board(9, 9, 10, 5);
+        b.generate();
+        int mine = 0;
+        while (b.getValue(mine % 9, mine / 9) != Board.MINE) {
+            mine++;
+        }
+        assertEquals(0, b.getRelocations());
+        b.reveal(mine % 9, mine / 9);
+        assertFalse(b.isLost());
+        assertEquals(1, b.getRelocations());
+
+        // The mine is now elsewhere
+        int mines = 0;
+        for (int i = 0; i < 81; i++) {
+            mines += b.getValue(i % 9, i / 9) == Board.MINE ? 1 : 0;
+        }
+        assertEquals(10, mines);
+        assertNotEquals(Board.MINE, b.getValue(mine % 9, mine / 9));
+        b.generate();
+        assertEquals(0, b.getRelocations());
+    }
+
+    /**
+     * Boards with more Cells than an array can index are rejected instead of wrapping around
+     */
+    @Test
+    public void oversizedBoardIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Board(70000, 70000, 10));
+        assertThrows(IllegalArgumentException.class, () -> new Board(65536, 65536, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BotEnvironments(300000, 100, 100, 10, 1));
+    }
+}
@@ -0,0 +1,191 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class BotEnvironmentsTest
+ * Checks that batched steps give the same outcomes and observations as Boards driven directly
+ */
+public class BotEnvironmentsTest
+{
+    private static final int ENVS = 150;
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 9;
+    private static final int MINES = 10;
+    private static final long SEED = 7;
+
+    /**
+     * Lockstep steps over several blocks of games, and batches hitting games in any order, match direct play
+     */
+    @Test
+    public void stepsMatchDirectPlay() {
+        BotEnvironments envs = new BotEnvironments(ENVS, WIDTH, HEIGHT, MINES, SEED);
+        Direct[] direct = new Direct[ENVS];
+        for (int e = 0; e < ENVS; e++) {
+            direct[e] = new Direct(new Board(WIDTH, HEIGHT, MINES, SEED + e * 0x9E3779B97F4A7C15L));
+        }
+        SplittableRandom random = new SplittableRandom(SEED);
+        int cellsPerEnv = WIDTH * HEIGHT;
+        int[] cells = new int[ENVS];
+        byte[] actions = new byte[ENVS];
+        byte[] outcomes = new byte[ENVS];
+        int[] opened = new int[ENVS];
+        int[] batchEnvs = new int[ENVS];
+
+        for (int round = 0; round < 200; round++) {
+            for (int e = 0; e < ENVS; e++) {
+                cells[e] = random.nextInt(8) == 0 ? -1 : random.nextInt(cellsPerEnv);
+                actions[e] = random.nextInt(4) == 0 ? BotEnvironments.FLAG_ACTION : BotEnvironments.REVEAL_ACTION;
+            }
+            if (round % 2 == 0) {
+                envs.step(cells, actions, outcomes, opened);
+                for (int e = 0; e < ENVS; e++) {
+                    if (cells[e] < 0) {
+                        assertEquals(BotEnvironments.NO_CHANGE, outcomes[e]);
+                        assertEquals(0, opened[e]);
+                    } else {
+                        direct[e].apply(cells[e], actions[e]);
+                        assertEquals(direct[e].outcome, outcomes[e], "game " + e + " in round " + round);
+                        assertEquals(direct[e].opened, opened[e], "game " + e + " in round " + round);
+                    }
+                }
+            } else {
+                // Batches may act on one game several times
+                for (int k = 0; k < ENVS; k++) {
+                    batchEnvs[k] = random.nextInt(ENVS);
+                    cells[k] = random.nextInt(cellsPerEnv);
+                }
+                envs.step(ENVS, batchEnvs, cells, actions, outcomes, opened);
+                for (int k = 0; k < ENVS; k++) {
+                    Direct d = direct[batchEnvs[k]];
+                    d.apply(cells[k], actions[k]);
+                    assertEquals(d.outcome, outcomes[k], "action " + k + " in round " + round);
+                    assertEquals(d.opened, opened[k], "action " + k + " in round " + round);
+                }
+            }
+
+            byte[] observations = envs.getObservations();
+            for (int e = 0; e < ENVS; e++) {
+                for (int i = 0; i < cellsPerEnv; i++) {
+                    assertEquals(direct[e].observe(i), observations[e * cellsPerEnv + i], "game " + e + " Cell " + i);
+                }
+            }
+
+            int finished = 0;
+            for (int e = 0; e < ENVS; e++) {
+                if (direct[e].board.isWon() || direct[e].board.isLost()) {
+                    direct[e].restart();
+                    finished++;
+                }
+            }
+            assertEquals(finished, envs.resetFinished());
+        }
+    }
+
+    /**
+     * Unseeded games take a new board from their pool when reset, with every Cell hidden again
+     */
+    @Test
+    public void pooledResetTakesNewBoard() {
+        BotEnvironments envs = new BotEnvironments(4, WIDTH, HEIGHT, MINES);
+        try {
+            Board first = envs.getBoard(2);
+            int mine = 0;
+            while (first.getValue(mine % WIDTH, mine / WIDTH) != Board.MINE) {
+                mine++;
+            }
+            // Flags first, so the mine is not the first click and loses
+            int[] envIds = { 2, 2 };
+            int[] cells = { (mine + 1) % (WIDTH * HEIGHT), mine };
+            byte[] actions = { BotEnvironments.FLAG_ACTION, BotEnvironments.REVEAL_ACTION };
+            byte[] outcomes = new byte[2];
+            envs.step(2, envIds, cells, actions, outcomes, new int[2]);
+            assertEquals(BotEnvironments.LOST, outcomes[1]);
+            assertEquals(BotEnvironments.MINE, envs.getObservations()[2 * WIDTH * HEIGHT + mine]);
+
+            assertEquals(1, envs.resetFinished());
+            assertNotSame(first, envs.getBoard(2));
+            for (int i = 0; i < WIDTH * HEIGHT; i++) {
+                assertEquals(BotEnvironments.HIDDEN, envs.getObservations()[2 * WIDTH * HEIGHT + i]);
+            }
+        } finally {
+            envs.close();
+        }
+    }
+
+    /**
+     * One game played on a Board directly, with the outcome a BotEnvironments step should report
+     */
+    private static final class Direct implements BoardListener {
+        final Board board;
+        byte outcome;
+        int opened;
+        int lostCell = -1;
+
+        Direct(Board board) {
+            this.board = board;
+            board.addBoardListener(this);
+            board.generate();
+        }
+
+        void restart() {
+            board.generate();
+            lostCell = -1;
+        }
+
+        void apply(int cell, byte action) {
+            int x = cell % WIDTH;
+            int y = cell / WIDTH;
+            opened = 0;
+            if (board.isWon() || board.isLost()) {
+                outcome = BotEnvironments.NO_CHANGE;
+            } else if (action == BotEnvironments.FLAG_ACTION) {
+                boolean wasFlagged = board.isFlagged(x, y);
+                board.flag(x, y);
+                if (board.isFlagged(x, y) == wasFlagged) {
+                    outcome = BotEnvironments.NO_CHANGE;
+                } else {
+                    outcome = wasFlagged ? BotEnvironments.UNFLAGGED : BotEnvironments.FLAGGED;
+                }
+            } else {
+                board.reveal(x, y);
+                if (board.isLost()) {
+                    outcome = BotEnvironments.LOST;
+                } else if (board.isWon()) {
+                    outcome = BotEnvironments.WON;
+                } else {
+                    outcome = opened > 0 ? BotEnvironments.OPENED : BotEnvironments.NO_CHANGE;
+                }
+            }
+        }
+
+        byte observe(int cell) {
+            int x = cell % WIDTH;
+            int y = cell / WIDTH;
+            if (cell == lostCell) {
+                return BotEnvironments.MINE;
+            } else if (board.isOpened(x, y)) {
+                return (byte) board.getValue(x, y);
+            }
+            return board.isFlagged(x, y) ? BotEnvironments.FLAG : BotEnvironments.HIDDEN;
+        }
+
+        public void cellsOpened(Board b, int[] cells, int count) {
+            opened += count;
+        }
+
+        public void flagChanged(Board b, int cell, boolean flagged) {
+        }
+
+        public void gameWon(Board b) {
+        }
+
+        public void gameLost(Board b, int cell) {
+            lostCell = cell;
+        }
+
+        public void tick(Board b, int seconds) {
+        }
+    }
+}
@@ -0,0 +1,192 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class BroadcastServiceTest
+ * Checks that spectators rebuild exactly what the player sees from the frames they are sent
+ */
+public class BroadcastServiceTest
+{
+    /**
+     * Random play in practice mode, with undo and redo, is followed frame by frame by a spectator watching from the
+     * start and by one joining part way through
+     */
+    @Test
+    public void viewersFollowRandomPlay() throws Exception {
+        for (long seed = 0; seed < 20; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            Board b = new Board(16, 16, 40, seed);
+            b.generate();
+            b.setPracticeMode(true);
+            int[] lostCell = { -1 };
+            b.addBoardListener(new BoardListener() {
+                public void cellsOpened(Board board, int[] cells, int count) {
+                }
+
+                public void flagChanged(Board board, int cell, boolean flagged) {
+                }
+
+                public void gameWon(Board board) {
+                }
+
+                public void gameLost(Board board, int cell) {
+                    lostCell[0] = cell;
+                }
+
+                public void gameResumed(Board board) {
+                    lostCell[0] = -1;
+                }
+
+                public void tick(Board board, int seconds) {
+                }
+            });
+
+            BroadcastService broadcast = new BroadcastService(b);
+            Watcher first = new Watcher(broadcast);
+            Watcher late = null;
+            try {
+                for (int step = 0; step < 300 && !b.isWon(); step++) {
+                    if (step == 150) {
+                        late = new Watcher(broadcast);
+                    }
+                    int action = random.nextInt(10);
+                    int x = random.nextInt(16);
+                    int y = random.nextInt(16);
+                    if (action < 6) {
+                        b.reveal(x, y);
+                    } else if (action < 8) {
+                        b.flag(x, y);
+                    } else if (action == 8) {
+                        b.undo();
+                    } else if (random.nextBoolean()) {
+                        b.redo();
+                    } else {
+                        b.tick();
+                    }
+                    broadcast.flush();
+                    first.awaitBoard(b, lostCell[0]);
+                    if (late != null) {
+                        late.awaitBoard(b, lostCell[0]);
+                    }
+                }
+            } finally {
+                broadcast.close();
+            }
+        }
+    }
+
+    /**
+     * A socket spectator which stops reading is started again from a keyframe instead of being sent every frame it
+     * missed, and then follows the game again
+     */
+    @Test
+    public void stalledSocketIsResynced() throws Exception {
+        Board b = new Board(300, 300, 10, 1);
+        b.generate();
+        BroadcastService broadcast = new BroadcastService(b);
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), broadcast.listen(0)));
+            socket.setSoTimeout(10000);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            BroadcastService.Viewer viewer = new BroadcastService.Viewer();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (in.available() == 0) {
+                assertTrue(System.nanoTime() < deadline, "Socket spectator was never sent a keyframe");
+                broadcast.flush();
+                Thread.sleep(10);
+            }
+            assertTrue(viewer.apply(BroadcastService.Viewer.readFrame(in)));
+
+            // Far more frames than the socket buffers hold, while nothing reads them
+            for (int frame = 0; frame < 3000; frame++) {
+                for (int i = 0; i < 5000; i++) {
+                    b.flag(i % 300, i / 300);
+                }
+                // Every frame differs, so only the last one shows the final board
+                b.tick();
+                broadcast.flush();
+            }
+            broadcast.flush();
+
+            int keyframes = 0;
+            while (!shows(viewer, b, -1)) {
+                ByteBuffer frame = BroadcastService.Viewer.readFrame(in);
+                if (frame.get(4) == BroadcastService.KEYFRAME) {
+                    keyframes++;
+                }
+                assertTrue(viewer.apply(frame), "Frame out of order");
+            }
+            assertTrue(keyframes > 0, "Stalled spectator was sent every frame instead of a keyframe");
+        } finally {
+            broadcast.close();
+        }
+    }
+
+    /**
+     * A local spectator and the Viewer it feeds
+     */
+    private static final class Watcher {
+        final LinkedBlockingQueue<ByteBuffer> frames = new LinkedBlockingQueue<>();
+        final BroadcastService.Viewer viewer = new BroadcastService.Viewer();
+
+        Watcher(BroadcastService broadcast) {
+            broadcast.subscribe(frames::add);
+        }
+
+        /**
+         * Applies frames until the Viewer shows what the player sees
+         * @param b Board being played
+         * @param lostCell mine which lost the game, or -1
+         */
+        void awaitBoard(Board b, int lostCell) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!shows(viewer, b, lostCell)) {
+                ByteBuffer frame = frames.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                assertNotNull(frame, "No frame reached the viewer");
+                assertTrue(viewer.apply(frame), "Frame out of order");
+            }
+        }
+    }
+
+    /**
+     * Checks whether a Viewer shows exactly what the player sees
+     * @param viewer spectator's view
+     * @param b Board being played
+     * @param lostCell mine which lost the game, or -1
+     * @return true if every Cell and the status match
+     */
+    private static boolean shows(BroadcastService.Viewer viewer, Board b, int lostCell) {
+        if (viewer.getWidth() != b.getWidth() || viewer.getHeight() != b.getHeight()
+                || viewer.isLost() != b.isLost() || viewer.isWon() != b.isWon()
+                || viewer.getSeconds() != b.getSeconds()) {
+            return false;
+        }
+        for (int y = 0; y < b.getHeight(); y++) {
+            for (int x = 0; x < b.getWidth(); x++) {
+                int code;
+                if (y * b.getWidth() + x == lostCell) {
+                    code = BroadcastService.MINE;
+                } else if (b.isOpened(x, y)) {
+                    code = b.getValue(x, y);
+                } else {
+                    code = b.isFlagged(x, y) ? BroadcastService.FLAG : BroadcastService.HIDDEN;
+                }
+                if (viewer.getCode(x, y) != code) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
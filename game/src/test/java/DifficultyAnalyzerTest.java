@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class DifficultyAnalyzerTest
+ * Checks the analyzer's counts on small hand-made boards whose 3BV, openings, islands and guesses are known
+ */
+public class DifficultyAnalyzerTest
+{
+    /**
+     * A board with no mines is one opening, cleared by one click
+     */
+    @Test
+    public void emptyBoardIsOneOpening() {
+        assertRating(1, 1, 0, 0, "...", "...", "...");
+    }
+
+    /**
+     * A corner mine leaves every safe Cell on the edge of one opening
+     */
+    @Test
+    public void cornerMineIsOneOpening() {
+        assertRating(1, 1, 0, 0, "*..", "...", "...");
+    }
+
+    /**
+     * Safe Cells which no opening reaches need a click each, and touching ones form an island
+     */
+    @Test
+    public void numbersWithoutOpeningsAreIslands() {
+        assertRating(1, 0, 1, 0, "*.*");
+        // The first Cell opened cannot tell which of its neighbors is the mine
+        assertRating(2, 0, 1, 1, "*..*");
+        // Four Cells below the mines; logic reaches them from the opening above
+        assertRating(5, 1, 1, 0, "...", "...", "**.", "...");
+    }
+
+    /**
+     * Openings on either side of a row of mines count once each, and the lone Cell between them is an island
+     */
+    @Test
+    public void separateOpeningsCountOnceEach() {
+        assertRating(3, 2, 1, 0, ".......", ".......", "***.***", ".......", ".......");
+    }
+
+    /**
+     * Safe Cells which no opened number says anything about can only be reached by guessing
+     */
+    @Test
+    public void unreachableCellsNeedGuesses() {
+        // The first number decides both mines beside it, but nothing decides the last Cell
+        assertRating(2, 0, 2, 1, "*.*.*");
+        // A wall of mines hides the right opening from the left one
+        assertRating(2, 2, 0, 1, "..*..", "..*..", "..*..");
+    }
+
+    private static void assertRating(int bbbv, int openings, int islands, int guesses, String... rows) {
+        Board b = Board.fromRows(rows);
+        DifficultyAnalyzer.Rating r = new DifficultyAnalyzer().analyze(b, 0);
+        String layout = String.join("/", rows);
+        assertEquals(bbbv, r.bbbv, "3BV of " + layout);
+        assertEquals(openings, r.openings, "openings of " + layout);
+        assertEquals(islands, r.islands, "islands of " + layout);
+        assertEquals(guesses, r.guesses, "guesses of " + layout);
+    }
+}
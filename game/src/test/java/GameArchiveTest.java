@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Class GameArchiveTest
+ * Checks that queries report boards of any size, and that flushing after every game keeps the archive compact
+ */
+public class GameArchiveTest
+{
+    @TempDir
+    Path dir;
+
+    /**
+     * Board sizes beyond 21 bits per field are reported as recorded
+     */
+    @Test
+    public void largeBoardSizesKeepTheirKey() throws Exception {
+        GameArchive archive = new GameArchive(dir);
+        archive.record("a", 4096, 4096, 3355443, 100, 0, true, 1);
+        archive.record("a", 4096, 4096, 3355443, 300, 0, true, 2);
+        archive.record("a", 10, 10, 10, 7, 0, true, 3);
+        archive.flush();
+        Map<String, Double> medians = archive.medianSecondsByBoardSize(new GameArchive.Filter());
+        assertEquals(Map.of("4096x4096/3355443", 200.0, "10x10/10", 7.0), medians);
+    }
+
+    /**
+     * One game per flush never leaves COMPACT_THRESHOLD small segments, and loses no games
+     */
+    @Test
+    public void flushingEachGameCompacts() throws Exception {
+        GameArchive archive = new GameArchive(dir);
+        int games = GameArchive.COMPACT_THRESHOLD * 3;
+        for (int g = 0; g < games; g++) {
+            archive.record("a", 10, 10, 10, g, 0, true, g);
+            archive.flush();
+            assertTrue(archive.getSmallSegments() < GameArchive.COMPACT_THRESHOLD);
+        }
+
+        // A new instance counts the segments already on disk
+        GameArchive reopened = new GameArchive(dir);
+        assertEquals(archive.getSmallSegments(), reopened.getSmallSegments());
+        long[] count = new long[2];
+        reopened.scan(new GameArchive.Filter(), new int[] { GameArchive.SECONDS }, false, (row, player) -> {
+            count[0]++;
+            count[1] += row[GameArchive.SECONDS];
+        });
+        assertEquals(games, count[0]);
+        assertEquals((long) games * (games - 1) / 2, count[1]);
+    }
+
+    /**
+     * Queries running while games are recorded and compacted never miss a segment or count one twice
+     */
+    @Test
+    public void scansDuringCompaction() throws Exception {
+        GameArchive archive = new GameArchive(dir);
+        int games = GameArchive.COMPACT_THRESHOLD * 4;
+        AtomicInteger recorded = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int g = 0; g < games; g++) {
+                    archive.record("a", 10, 10, 10, 1, 0, true, g);
+                    archive.flush();
+                    recorded.incrementAndGet();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.start();
+        long previous = 0;
+        while (writer.isAlive()) {
+            int before = recorded.get();
+            long[] count = new long[1];
+            archive.scan(new GameArchive.Filter(), new int[] { GameArchive.SECONDS }, false, (row, player) -> count[0]++);
+            assertTrue(count[0] >= before && count[0] >= previous && count[0] <= games, count[0] + " games after " + before);
+            previous = count[0];
+        }
+        writer.join();
+        assertEquals(games, recorded.get());
+        long[] count = new long[1];
+        archive.scan(new GameArchive.Filter(), new int[] { GameArchive.SECONDS }, false, (row, player) -> count[0]++);
+        assertEquals(games, count[0]);
+    }
+}
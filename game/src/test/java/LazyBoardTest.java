@@ -0,0 +1,56 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class LazyBoardTest
+ * Checks that cascades on boards without end stay bounded and still open everything they should
+ */
+public class LazyBoardTest
+{
+    /**
+     * Below about 9.5% density one click reaches an endless region, which is opened a budget at a time
+     */
+    @Test
+    public void endlessCascadeIsBounded() {
+        LazyBoard b = new LazyBoard(Integer.MAX_VALUE, Integer.MAX_VALUE, 0.08, 1);
+        int opened = b.reveal(1 << 30, 1 << 30);
+        assertTrue(opened >= LazyBoard.CASCADE_BUDGET && opened <= LazyBoard.CASCADE_BUDGET + 8, "opened " + opened);
+        assertTrue(b.isCascading());
+        long total = opened;
+        for (int k = 0; k < 3; k++) {
+            int more = b.continueCascade();
+            assertTrue(more >= LazyBoard.CASCADE_BUDGET && more <= LazyBoard.CASCADE_BUDGET + 8, "opened " + more);
+            total += more;
+        }
+        assertEquals(total, b.getOpenedCount());
+        assertFalse(b.isLost());
+    }
+
+    /**
+     * A cascade continued to its end opens every Cell around every opened empty Cell
+     */
+    @Test
+    public void continuedCascadeIsComplete() {
+        LazyBoard b = new LazyBoard(3000, 3000, 0.05, 7);
+        b.reveal(1500, 1500);
+        int calls = 1;
+        while (b.isCascading()) {
+            b.continueCascade();
+            calls++;
+        }
+        assertTrue(calls > 1, "cascade should span several calls");
+        assertEquals(0, b.continueCascade());
+        for (int y = 0; y < 3000; y++) {
+            for (int x = 0; x < 3000; x++) {
+                if (b.isOpened(x, y) && b.getValue(x, y) == 0) {
+                    for (int dy = Math.max(y - 1, 0); dy <= Math.min(y + 1, 2999); dy++) {
+                        for (int dx = Math.max(x - 1, 0); dx <= Math.min(x + 1, 2999); dx++) {
+                            assertTrue(b.isOpened(dx, dy), "(" + dx + ", " + dy + ") next to opened empty Cell");
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
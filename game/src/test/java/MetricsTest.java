@@ -0,0 +1,47 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class MetricsTest
+ * Checks that histogram buckets keep recorded values to within their stated precision
+ */
+public class MetricsTest
+{
+    /**
+     * Every value falls in a bucket whose upper bound is at least the value and less than 7% above it
+     */
+    @Test
+    public void bucketsRoundTrip() {
+        for (long v = 0; v < 1 << 20; v++) {
+            assertRoundTrip(v);
+        }
+        SplittableRandom random = new SplittableRandom(1);
+        for (int k = 0; k < 1000000; k++) {
+            // Spreads values over every power of two
+            assertRoundTrip(random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63));
+        }
+        assertRoundTrip(Long.MAX_VALUE);
+        // The largest value still has a bucket
+        assertTrue(Metrics.Histogram.bucketOf(Long.MAX_VALUE) < Metrics.Histogram.BUCKET_COUNT);
+    }
+
+    /**
+     * Percentiles report the bucket of the recorded value
+     */
+    @Test
+    public void percentileOfSingleValue() {
+        for (long v : new long[] { 32, 100, 1000 }) {
+            Metrics.Histogram h = new Metrics.Histogram();
+            h.record(v);
+            long p100 = h.percentile(100);
+            assertTrue(v <= p100 && p100 < 1.07 * v, v + " reported as " + p100);
+        }
+    }
+
+    private static void assertRoundTrip(long v) {
+        long upper = Metrics.Histogram.upperBoundOf(Metrics.Histogram.bucketOf(v));
+        assertTrue(v <= upper && (upper == v || upper < 1.07 * v), v + " has upper bound " + upper);
+    }
+}
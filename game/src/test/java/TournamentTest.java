@@ -0,0 +1,36 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class TournamentTest
+ * Checks that every player of a round plays the same mines, wherever they click first
+ */
+public class TournamentTest
+{
+    /**
+     * Boards start with the published opening revealed, so clicking a mine loses instead of moving it
+     */
+    @Test
+    public void firstClickCannotMoveMines() {
+        Tournament t = new Tournament(9, 9, 10, 42, 20);
+        for (int round = 0; round < t.getRounds(); round++) {
+            Board a = t.join("a").getBoard(round);
+            Board b = t.join("b").getBoard(round);
+            int opening = t.getOpening(round);
+            assertTrue(a.isOpened(opening % 9, opening / 9));
+            assertFalse(a.isFirstClick());
+
+            int mine = 0;
+            while (a.getValue(mine % 9, mine / 9) != Board.MINE) {
+                mine++;
+            }
+            a.reveal(mine % 9, mine / 9);
+            assertTrue(a.isLost());
+            assertEquals(0, a.getRelocations());
+            for (int i = 0; i < 81; i++) {
+                assertEquals(b.getValue(i % 9, i / 9), a.getValue(i % 9, i / 9), "round " + round + " Cell " + i);
+            }
+        }
+    }
+}
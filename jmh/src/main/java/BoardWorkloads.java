@@ -0,0 +1,189 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import minesweeper.jmh.Workload;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Class BoardWorkloads
+ * Builds the workload behind each benchmark parameter
+ */
+public class BoardWorkloads implements Function<String, Workload>
+{
+    public Workload apply(String name) {
+        String[] parts = name.split("/");
+        switch (parts[0]) {
+            case "generate": {
+                int[] size = size(parts[1], parts[2]);
+                Board b = new Board(size[0], size[1], size[2]);
+                if (parts.length > 3) {
+                    b.setBitboardGeneration(parts[3].equals("bitboard"));
+                }
+                return bh -> {
+                    b.generate();
+                    bh.consume(b.getValue(0, 0));
+                };
+            }
+            case "firstClickMine": {
+                // Each run clicks a mine on its own board, so the mine is relocated every time
+                return new Prepared(() -> new Board(30, 16, 99), BoardWorkloads::findMine, (b, cell, bh) -> {
+                    b.reveal(cell % 30, cell / 30);
+                    bh.consume(b.isOpened(cell % 30, cell / 30));
+                });
+            }
+            case "cascade": {
+                if (parts.length > 2) {
+                    // One click opening millions of Cells on a sparse board
+                    return new Prepared(() -> new Board(2048, 2048, 2000, 1), BoardWorkloads::findEmpty, (b, cell, bh) -> {
+                        b.reveal(cell % 2048, cell / 2048);
+                        bh.consume(b.isWon());
+                    });
+                }
+                int side = size(parts[1], "0")[0];
+                return new Prepared(() -> new Board(side, side, 0), b -> side / 2 * side + side / 2, (b, cell, bh) -> {
+                    b.reveal(cell % side, cell / side);
+                    bh.consume(b.isWon());
+                });
+            }
+            case "revealEach": {
+                // Opens every safe Cell one at a time, so each reveal runs the end condition check
+                return new Prepared(() -> new Board(100, 100, 2000), b -> 0, (b, cell, bh) -> {
+                    for (int y = 0; y < 100; y++) {
+                        for (int x = 0; x < 100; x++) {
+                            if (b.getValue(x, y) != Board.MINE && !b.isOpened(x, y)) {
+                                b.reveal(x, y);
+                            }
+                        }
+                    }
+                    bh.consume(b.isWon());
+                });
+            }
+            case "flagToggle": {
+                Board b = new Board(30, 16, 99);
+                b.generate();
+                return bh -> {
+                    b.flag(7, 7);
+                    b.flag(7, 7);
+                    bh.consume(b.getFlagsRemaining());
+                };
+            }
+            case "broadcast": {
+                // Same moves streamed to spectators; a move should cost about the same however many are watching
+                int watchers = Integer.parseInt(parts[2].substring(0, parts[2].indexOf("watchers")));
+                Board b = new Board(30, 16, 99);
+                b.generate();
+                BroadcastService broadcast;
+                try {
+                    broadcast = new BroadcastService(b);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                for (int k = 0; k < watchers; k++) {
+                    broadcast.subscribe(frame -> { });
+                }
+                return bh -> {
+                    b.flag(7, 7);
+                    b.flag(7, 7);
+                    broadcast.flush();
+                    bh.consume(b.getFlagsRemaining());
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown workload: " + name);
+        }
+    }
+
+    /**
+     * Interface Action
+     * Work done on one prepared board
+     */
+    private interface Action {
+        /**
+         * Acts on a board
+         * @param b generated Board
+         * @param cell packed index of the Cell found for this board when it was prepared
+         * @param bh consumes the result
+         */
+        void run(Board b, int cell, Blackhole bh);
+    }
+
+    /**
+     * Class Prepared
+     * A workload which uses up its board, so a ring of boards is generated and their target Cells found in
+     * prepare(), outside the measured time, and each run acts on the next one
+     */
+    private static final class Prepared implements Workload {
+        private final Supplier<Board> factory;
+        private final ToIntFunction<Board> target;
+        private final Action action;
+        private Board[] boards = new Board[0];
+        private int[] cells = new int[0];
+        private int next;
+
+        Prepared(Supplier<Board> factory, ToIntFunction<Board> target, Action action) {
+            this.factory = factory;
+            this.target = target;
+            this.action = action;
+        }
+
+        public void prepare(int runs) {
+            if (boards.length < runs) {
+                boards = Arrays.copyOf(boards, runs);
+                cells = new int[runs];
+            }
+            for (int k = 0; k < runs; k++) {
+                if (boards[k] == null) {
+                    boards[k] = factory.get();
+                }
+                boards[k].generate();
+                cells[k] = target.applyAsInt(boards[k]);
+            }
+            next = 0;
+        }
+
+        public void run(Blackhole bh) {
+            int k = next++;
+            action.run(boards[k], cells[k], bh);
+        }
+    }
+
+    /**
+     * Parses a board size such as "30x16" and mine count
+     * @param dimensions width and height separated by "x"
+     * @param mines number of mines
+     * @return width, height and mine count
+     */
+    private static int[] size(String dimensions, String mines) {
+        String[] wh = dimensions.split("x");
+        return new int[] { Integer.parseInt(wh[0]), Integer.parseInt(wh[1]), Integer.parseInt(mines) };
+    }
+
+    /**
+     * Finds the first empty Cell on a board
+     * @param b generated Board
+     * @return packed index of an empty Cell
+     */
+    static int findEmpty(Board b) {
+        for (int i = 0; ; i++) {
+            if (b.getValue(i % b.getWidth(), i / b.getWidth()) == 0) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Finds the first mine on a board
+     * @param b generated Board
+     * @return packed index of a mine
+     */
+    static int findMine(Board b) {
+        for (int i = 0; ; i++) {
+            if (b.getValue(i % b.getWidth(), i / b.getWidth()) == Board.MINE) {
+                return i;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package minesweeper.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Class BoardBenchmark
+ * Times the hot paths of Board which can be repeated on one board (generation, flagging and broadcasting)
+ * Every workload runs in its own forked JVMs, so each gets its own JIT profile
+ * Actions which use up their board are timed by PreparedBoardBenchmark and LargeCascadeBenchmark
+ * Run with: mvn -B package -DskipTests && java -jar jmh/target/benchmarks.jar [-rf json -rff results.json] [regexp]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class BoardBenchmark
+{
+    @Param({
+        "generate/10x10/10", "generate/30x16/99", "generate/100x100/1000", "generate/100x100/2000",
+        "generate/1000x1000/150000", "generate/4096x4096/3355443/perMine", "generate/4096x4096/3355443/bitboard",
+        "flagToggle/30x16/99",
+        "broadcast/flagToggle/0watchers", "broadcast/flagToggle/1000watchers"
+    })
+    public String workload;
+
+    private Workload w;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        w = Workload.load(workload);
+    }
+
+    @Benchmark
+    public void run(Blackhole bh) {
+        w.run(bh);
+    }
+}
@@ -0,0 +1,39 @@
+package minesweeper.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Class LargeCascadeBenchmark
+ * Times single clicks which open a million Cells or more; each click takes milliseconds, so its board is generated
+ * just before it, outside the measured time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class LargeCascadeBenchmark
+{
+    @Param({ "cascade/1000x1000", "cascade/2048x2048/2000" })
+    public String workload;
+
+    private Workload w;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        w = Workload.load(workload);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        w.prepare(1);
+    }
+
+    @Benchmark
+    public void run(Blackhole bh) {
+        w.run(bh);
+    }
+}
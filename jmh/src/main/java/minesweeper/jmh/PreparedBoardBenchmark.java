@@ -0,0 +1,46 @@
+package minesweeper.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Class PreparedBoardBenchmark
+ * Times actions which use up the board they act on (first clicks on mines, cascades, revealing a whole board)
+ * Each iteration runs BATCH actions, one per board, on boards generated before the iteration starts, so only the
+ * actions themselves are timed; the score is the time per action
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 50)
+@Measurement(iterations = 50)
+public class PreparedBoardBenchmark
+{
+    // Actions per iteration
+    public static final int BATCH = 1024;
+
+    @Param({ "firstClickMine/30x16/99", "cascade/100x100", "revealEach/100x100/2000" })
+    public String workload;
+
+    private Workload w;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        w = Workload.load(workload);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+        w.prepare(BATCH);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void run(Blackhole bh) {
+        for (int k = 0; k < BATCH; k++) {
+            w.run(bh);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package minesweeper.jmh;
+
+import java.util.function.Function;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Interface Workload
+ * A single benchmarked action on the game's classes
+ * The game's classes are in the default package, which classes in a named package (as JMH requires benchmarks
+ * to be) cannot refer to, so workloads are written in the default package against this interface
+ */
+public interface Workload
+{
+    /**
+     * Performs the action once
+     * @param bh consumes any value depending on the work done, so the JIT cannot remove it
+     */
+    void run(Blackhole bh);
+
+    /**
+     * Gets ready for the next runs outside the measured time, for actions which use up the board they act on
+     * @param runs number of runs before prepare is called again
+     */
+    default void prepare(int runs) {
+    }
+
+    /**
+     * Builds a workload from its benchmark parameter, through the default package's BoardWorkloads
+     * @param name benchmark parameter, such as "generate/30x16/99"
+     * @return the workload
+     */
+    @SuppressWarnings("unchecked")
+    static Workload load(String name) throws ReflectiveOperationException {
+        Function<String, Workload> workloads = (Function<String, Workload>) Class.forName("BoardWorkloads")
+            .getDeclaredConstructor().newInstance();
+        return workloads.apply(name);
+    }
+}